@@ -1,21 +1,24 @@
 package tr.balzach.coderaEconomy;
 
 import net.milkbowl.vault.economy.Economy;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import tr.balzach.coderaEconomy.api.CoderaEconomyAPI;
 import tr.balzach.coderaEconomy.commands.*;
 import tr.balzach.coderaEconomy.config.ConfigManager;
+import tr.balzach.coderaEconomy.currency.Currency;
 import tr.balzach.coderaEconomy.currency.CurrencyManager;
 import tr.balzach.coderaEconomy.database.DatabaseManager;
 import tr.balzach.coderaEconomy.integrations.CoderaPlaceholderExpansion;
 import tr.balzach.coderaEconomy.listeners.PlayerListener;
+import tr.balzach.coderaEconomy.util.ExpiringMap;
 import tr.balzach.coderaEconomy.vault.VaultHook;
 
 import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -30,12 +33,17 @@ public final class CoderaEconomy extends JavaPlugin {
     private CurrencyManager currencyManager;
     private DatabaseManager databaseManager;
     private VaultHook vaultHook;
+    private CoderaPlaceholderExpansion placeholderExpansion;
     private boolean placeholderAPIEnabled = false;
 
-    // Thread-safe pending payments
-    private final ConcurrentHashMap<UUID, PendingPayment> pendingPayments = new ConcurrentHashMap<>();
+    // Pending payments expire on a timing wheel: 250ms ticks, 128s per turn
+    private static final long PAYMENT_TICK_MILLIS = 250;
+    private static final int PAYMENT_WHEEL_SLOTS = 512;
 
-    // Scheduled executor for cleanup tasks
+    private final ExpiringMap<UUID, PendingPayment> pendingPayments =
+            new ExpiringMap<>(PAYMENT_TICK_MILLIS, PAYMENT_WHEEL_SLOTS, this::onPaymentExpired);
+
+    // Scheduled executor ticking the pending payment wheel
     private ScheduledExecutorService executorService;
 
     @Override
@@ -92,6 +100,11 @@ public final class CoderaEconomy extends JavaPlugin {
 
         pendingPayments.clear();
 
+        if (placeholderExpansion != null) {
+            placeholderExpansion.shutdown();
+            placeholderExpansion = null;
+        }
+
         if (databaseManager != null) {
             getLogger().info("Creating final backup...");
             databaseManager.createBackup();
@@ -129,7 +142,8 @@ public final class CoderaEconomy extends JavaPlugin {
             return false;
         }
 
-        new CoderaPlaceholderExpansion(this).register();
+        this.placeholderExpansion = new CoderaPlaceholderExpansion(this);
+        placeholderExpansion.register();
         return true;
     }
 
@@ -173,23 +187,25 @@ public final class CoderaEconomy extends JavaPlugin {
             return thread;
         });
 
-        executorService.scheduleAtFixedRate(() -> {
-            long now = System.currentTimeMillis();
-            int removed = 0;
+        // Each tick only visits one wheel slot, there is no full scan
+        executorService.scheduleAtFixedRate(pendingPayments::tick,
+                PAYMENT_TICK_MILLIS, PAYMENT_TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
 
-            for (UUID uuid : pendingPayments.keySet()) {
-                PendingPayment payment = pendingPayments.get(uuid);
-                if (payment != null && now - payment.timestamp > 60000) {
-                    if (pendingPayments.remove(uuid, payment)) {
-                        removed++;
-                    }
-                }
-            }
+    /**
+     * Tells the sender that a payment was not confirmed in time
+     */
+    private void onPaymentExpired(@NotNull UUID uuid, @NotNull PendingPayment payment) {
+        if (!isEnabled()) {
+            return;
+        }
 
-            if (removed > 0) {
-                getLogger().fine("Cleaned up " + removed + " expired payment confirmations");
+        getServer().getScheduler().runTask(this, () -> {
+            Player player = getServer().getPlayer(uuid);
+            if (player != null) {
+                player.sendMessage(configManager.getMessage("pay.expired"));
             }
-        }, 60, 60, TimeUnit.SECONDS);
+        });
     }
 
     /**
@@ -217,6 +233,11 @@ public final class CoderaEconomy extends JavaPlugin {
             getLogger().info("[4/5] Reloading currency system...");
             currencyManager.reload();
 
+            // Placeholder values were rendered with the old formats and currencies
+            if (placeholderExpansion != null) {
+                placeholderExpansion.reload();
+            }
+
             // Step 5: Create backup (optional but recommended)
             getLogger().info("[5/5] Creating backup...");
             if (configManager.isBackupEnabled()) {
@@ -303,26 +324,54 @@ public final class CoderaEconomy extends JavaPlugin {
 
     // Payment confirmation system
     public void addPendingPayment(@NotNull UUID player, @NotNull PendingPayment payment) {
-        pendingPayments.put(player, payment);
+        pendingPayments.put(player, payment, getPaymentTimeout(payment.currencyId) * 1000L);
     }
 
+    /**
+     * Gets the payment waiting for confirmation, null if there is none or it expired
+     */
     public PendingPayment getPendingPayment(@NotNull UUID player) {
         return pendingPayments.get(player);
     }
 
+    /**
+     * Seconds a payment in the currency waits for /payconfirm
+     */
+    public int getPaymentTimeout(@NotNull String currencyId) {
+        Currency currency = currencyManager.getCurrency(currencyId);
+        return currency != null ? currency.getPayConfirmTimeout() : 60;
+    }
+
+    /**
+     * Removes and returns the payment waiting for confirmation, so it can only be confirmed once
+     */
+    @Nullable
+    public PendingPayment takePendingPayment(@NotNull UUID player) {
+        return pendingPayments.take(player);
+    }
+
+    /**
+     * Whether a payment is waiting for confirmation or has expired without being reported yet
+     */
+    public boolean hasPendingPayment(@NotNull UUID player) {
+        return pendingPayments.containsKey(player);
+    }
+
     public void removePendingPayment(@NotNull UUID player) {
         pendingPayments.remove(player);
     }
 
     public static class PendingPayment {
         public final UUID target;
+        public final String targetName;
         public final String currencyId;
         public final double amount;
         public final double tax;
         public final long timestamp;
 
-        public PendingPayment(UUID target, String currencyId, double amount, double tax) {
+        public PendingPayment(UUID target, String targetName, String currencyId, double amount, double tax) {
             this.target = target;
+            this.targetName = targetName;
             this.currencyId = currencyId;
             this.amount = amount;
             this.tax = tax;
@@ -6,10 +6,12 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import tr.balzach.coderaEconomy.CoderaEconomy;
 import tr.balzach.coderaEconomy.currency.Currency;
+import tr.balzach.coderaEconomy.database.DatabaseManager.AccountSnapshot;
 import tr.balzach.coderaEconomy.database.DatabaseManager.BalanceEntry;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -29,6 +31,10 @@ import java.util.concurrent.CompletableFuture;
  *     // Add money
  *     api.addBalance(player.getUniqueId(), player.getName(), "lira", 100);
  *
+ *     // Get all balances of a player, or one balance of many players, in one query
+ *     AccountSnapshot wallet = api.getAccountSnapshot(player.getUniqueId());
+ *     Map<UUID, Double> team = api.getBalances(teamMembers, "gold");
+ *
  *     // Get all currencies
  *     Collection<Currency> currencies = api.getCurrencies();
  * }
@@ -126,6 +132,36 @@ public class CoderaEconomyAPI {
         return plugin.getDatabaseManager().removeBalance(uuid, username, currencyId, amount);
     }
 
+    // ═══════════════════ BULK LOOKUPS ═══════════════════
+
+    /**
+     * Gets the balances of many players in one currency, cached ones first and the rest in one query
+     *
+     * @return the balance of every player in request order, -1 for players without one
+     */
+    @NotNull
+    public Map<UUID, Double> getBalances(@NotNull Collection<UUID> uuids, @NotNull String currencyId) {
+        return plugin.getDatabaseManager().getBalances(uuids, currencyId);
+    }
+
+    @NotNull
+    public CompletableFuture<Map<UUID, Double>> getBalancesAsync(@NotNull Collection<UUID> uuids, @NotNull String currencyId) {
+        return plugin.getDatabaseManager().getBalancesAsync(uuids, currencyId);
+    }
+
+    /**
+     * Gets every balance of a player in one immutable snapshot
+     */
+    @NotNull
+    public AccountSnapshot getAccountSnapshot(@NotNull UUID uuid) {
+        return plugin.getDatabaseManager().getAccountSnapshot(uuid);
+    }
+
+    @NotNull
+    public CompletableFuture<AccountSnapshot> getAccountSnapshotAsync(@NotNull UUID uuid) {
+        return plugin.getDatabaseManager().getAccountSnapshotAsync(uuid);
+    }
+
     // ═══════════════════ ACCOUNT MANAGEMENT ═══════════════════
 
     public boolean hasAccount(@NotNull UUID uuid) {
@@ -187,6 +223,30 @@ public class CoderaEconomyAPI {
         return plugin.getDatabaseManager().getTopBalances(currencyId, limit, offset);
     }
 
+    /**
+     * Milliseconds since the leaderboard snapshot of a currency was taken, -1 if there is none
+     */
+    public long getTopBalancesAge(@NotNull String currencyId) {
+        return plugin.getDatabaseManager().getBaltopSnapshotAge(currencyId);
+    }
+
+    /**
+     * Gets the leaderboard position of a player (1 = richest), or -1 if unknown.
+     * While the leaderboard index is still loading after startup, this queries the database.
+     */
+    public int getRank(@NotNull UUID uuid, @NotNull String currencyId) {
+        return plugin.getDatabaseManager().getRank(uuid, currencyId);
+    }
+
+    /**
+     * Gets the players ranked up to radius places above and below a player, including the player.
+     * While the leaderboard index is still loading after startup, this queries the database.
+     */
+    @NotNull
+    public List<BalanceEntry> getBalancesAround(@NotNull UUID uuid, @NotNull String currencyId, int radius) {
+        return plugin.getDatabaseManager().getBalancesAround(uuid, currencyId, radius);
+    }
+
     public int getTotalPlayers() {
         return plugin.getDatabaseManager().getTotalPlayers();
     }
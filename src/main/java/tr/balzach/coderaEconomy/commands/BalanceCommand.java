@@ -10,12 +10,12 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import tr.balzach.coderaEconomy.CoderaEconomy;
+import tr.balzach.coderaEconomy.config.MessageArgs;
 import tr.balzach.coderaEconomy.currency.Currency;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Balance command with multi-currency support - /balance, /para, /bakiye
@@ -68,7 +68,7 @@ public class BalanceCommand implements CommandExecutor, TabCompleter {
                 return true;
             }
 
-            OfflinePlayer target = Bukkit.getOfflinePlayer(args[0]);
+            OfflinePlayer target = plugin.getDatabaseManager().getOfflinePlayer(args[0]);
 
             if (!plugin.getDatabaseManager().hasAccount(target.getUniqueId())) {
                 sender.sendMessage(plugin.getConfigManager().getMessage("player-not-found"));
@@ -100,10 +100,10 @@ public class BalanceCommand implements CommandExecutor, TabCompleter {
                 balance = currency.getStarterBalance();
             }
 
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("player", target.getName() != null ? target.getName() : "Unknown");
-            placeholders.put("amount", currency.format(balance));
-            placeholders.put("currency", currency.getDisplayName());
+            MessageArgs placeholders = new MessageArgs()
+                    .set("player", target.getName() != null ? target.getName() : "Unknown")
+                    .set("amount", currency.format(balance))
+                    .set("currency", currency.getDisplayName());
 
             String message;
             if (sender instanceof Player && ((Player) sender).getUniqueId().equals(target.getUniqueId())) {
@@ -114,6 +114,12 @@ public class BalanceCommand implements CommandExecutor, TabCompleter {
 
             // Send message on main thread
             Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+        }).exceptionally(e -> {
+            // A rejected lookup fails right away, on the calling (main) thread
+            if (e.getCause() instanceof RejectedExecutionException) {
+                sender.sendMessage(plugin.getConfigManager().getMessage("storage-busy"));
+            }
+            return null;
         });
     }
 
@@ -123,13 +129,9 @@ public class BalanceCommand implements CommandExecutor, TabCompleter {
         List<String> completions = new ArrayList<>();
 
         if (args.length == 1) {
-            // Add online players if has permission
+            // Add known players if has permission
             if (sender.hasPermission("coderaeconomy.balance.others")) {
-                for (Player player : Bukkit.getOnlinePlayers()) {
-                    if (player.getName().toLowerCase().startsWith(args[0].toLowerCase())) {
-                        completions.add(player.getName());
-                    }
-                }
+                completions.addAll(plugin.getDatabaseManager().completeUsernames(args[0]));
             }
 
             // Add currencies
@@ -8,14 +8,14 @@ import org.bukkit.command.TabCompleter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import tr.balzach.coderaEconomy.CoderaEconomy;
+import tr.balzach.coderaEconomy.config.MessageArgs;
 import tr.balzach.coderaEconomy.currency.Currency;
 import tr.balzach.coderaEconomy.database.DatabaseManager.BalanceEntry;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
 
 /**
  * Baltop command with multi-currency support - /baltop, /balancetop, /zenginler
@@ -62,9 +62,9 @@ public class BaltopCommand implements CommandExecutor, TabCompleter {
         final int finalPage = page;
         final Currency finalCurrency = currency;
 
-        CompletableFuture.runAsync(() -> {
+        plugin.getDatabaseManager().runAsync(() -> {
             int entriesPerPage = plugin.getConfigManager().getBaltopEntriesPerPage();
-            int totalPlayers = plugin.getDatabaseManager().getTotalPlayers();
+            int totalPlayers = plugin.getDatabaseManager().countLeaderboard(finalCurrency.getId());
 
             // FIX #8: Division by zero kontrolü
             if (entriesPerPage <= 0) {
@@ -99,54 +99,69 @@ public class BaltopCommand implements CommandExecutor, TabCompleter {
                 return;
             }
 
-            List<String> messages = new ArrayList<>();
+            List<String> messages = new ArrayList<>(entries.size() + 2);
 
-            Map<String, String> headerPlaceholders = new HashMap<>();
-            headerPlaceholders.put("page", String.valueOf(finalPage));
-            headerPlaceholders.put("total", String.valueOf(totalPages));
-            headerPlaceholders.put("currency", finalCurrency.getDisplayName());
+            MessageArgs headerPlaceholders = new MessageArgs()
+                    .set("page", String.valueOf(finalPage))
+                    .set("total", String.valueOf(totalPages))
+                    .set("currency", finalCurrency.getDisplayName());
             messages.add(plugin.getConfigManager().getMessage("baltop.header", headerPlaceholders, false));
 
+            // One holder for every line, its values are overwritten per entry
+            MessageArgs entryPlaceholders = new MessageArgs(3);
             int position = offset + 1;
             for (BalanceEntry entry : entries) {
-                Map<String, String> entryPlaceholders = new HashMap<>();
-                entryPlaceholders.put("position", String.valueOf(position));
-                entryPlaceholders.put("player", entry.username());
-                entryPlaceholders.put("amount", finalCurrency.format(entry.balance()));
+                entryPlaceholders.set("position", String.valueOf(position))
+                        .set("player", entry.username())
+                        .set("amount", finalCurrency.format(entry.balance()));
 
                 messages.add(plugin.getConfigManager().getMessage("baltop.entry", entryPlaceholders, false));
                 position++;
             }
 
-            messages.add(plugin.getConfigManager().getMessage("baltop.footer", new HashMap<>(), false));
+            messages.add(plugin.getConfigManager().getMessage("baltop.footer", false));
 
             Bukkit.getScheduler().runTask(plugin, () -> {
                 for (String message : messages) {
                     sender.sendMessage(message);
                 }
             });
+        }).exceptionally(e -> {
+            if (e instanceof RejectedExecutionException) {
+                sender.sendMessage(plugin.getConfigManager().getMessage("storage-busy"));
+            } else {
+                plugin.getLogger().log(Level.SEVERE, "Failed to show baltop", e);
+            }
+            return null;
         });
 
         return true;
     }
 
+    /**
+     * Page numbers to suggest; only one page while the leaderboard size is not known yet
+     */
+    private int suggestedPages(@NotNull Currency currency) {
+        int totalPlayers = plugin.getDatabaseManager().getLeaderboardSize(currency.getId());
+        int entriesPerPage = plugin.getConfigManager().getBaltopEntriesPerPage();
+
+        // FIX: Division by zero önleme
+        if (entriesPerPage <= 0) {
+            entriesPerPage = 10;
+        }
+
+        int maxPages = totalPlayers <= 0 ? 1 : (int) Math.ceil((double) totalPlayers / entriesPerPage);
+        return Math.min(5, maxPages);
+    }
+
     @Override
     @Nullable
     public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
         List<String> completions = new ArrayList<>();
 
         if (args.length == 1) {
-            int totalPlayers = plugin.getDatabaseManager().getTotalPlayers();
-            int entriesPerPage = plugin.getConfigManager().getBaltopEntriesPerPage();
-
-            // FIX: Division by zero önleme
-            if (entriesPerPage <= 0) {
-                entriesPerPage = 10;
-            }
-
-            int maxPages = totalPlayers == 0 ? 1 : (int) Math.ceil((double) totalPlayers / entriesPerPage);
-
-            for (int i = 1; i <= Math.min(5, maxPages); i++) {
+            int pages = suggestedPages(plugin.getCurrencyManager().getDefaultCurrency());
+            for (int i = 1; i <= pages; i++) {
                 completions.add(String.valueOf(i));
             }
 
@@ -164,16 +179,12 @@ public class BaltopCommand implements CommandExecutor, TabCompleter {
                     }
                 }
             } catch (NumberFormatException e) {
-                int totalPlayers = plugin.getDatabaseManager().getTotalPlayers();
-                int entriesPerPage = plugin.getConfigManager().getBaltopEntriesPerPage();
-
-                if (entriesPerPage <= 0) {
-                    entriesPerPage = 10;
+                Currency currency = plugin.getCurrencyManager().getCurrency(args[0]);
+                if (currency == null) {
+                    currency = plugin.getCurrencyManager().getDefaultCurrency();
                 }
-
-                int maxPages = totalPlayers == 0 ? 1 : (int) Math.ceil((double) totalPlayers / entriesPerPage);
-
-                for (int i = 1; i <= Math.min(5, maxPages); i++) {
+                int pages = suggestedPages(currency);
+                for (int i = 1; i <= pages; i++) {
                     completions.add(String.valueOf(i));
                 }
             }
@@ -7,6 +7,7 @@ import org.bukkit.command.TabCompleter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import tr.balzach.coderaEconomy.CoderaEconomy;
+import tr.balzach.coderaEconomy.config.MessageArgs;
 import tr.balzach.coderaEconomy.currency.Currency;
 
 import java.util.*;
@@ -50,11 +51,11 @@ public class CurrencyCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(plugin.getConfigManager().getMessage("currency.list.header", false));
 
         for (Currency currency : currencies) {
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("id", currency.getId());
-            placeholders.put("name", currency.getDisplayName());
-            placeholders.put("symbol", currency.getSymbol());
-            placeholders.put("default", currency.isDefault() ? "✓" : "");
+            MessageArgs placeholders = new MessageArgs()
+                    .set("id", currency.getId())
+                    .set("name", currency.getDisplayName())
+                    .set("symbol", currency.getSymbol())
+                    .set("default", currency.isDefault() ? "✓" : "");
 
             sender.sendMessage(plugin.getConfigManager().getMessage("currency.list.entry", placeholders, false));
         }
@@ -74,25 +75,25 @@ public class CurrencyCommand implements CommandExecutor, TabCompleter {
         Currency currency = plugin.getCurrencyManager().getCurrency(args[1]);
 
         if (currency == null) {
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("currency", args[1]);
+            MessageArgs placeholders = new MessageArgs()
+                    .set("currency", args[1]);
             sender.sendMessage(plugin.getConfigManager().getMessage("currency.not-found", placeholders));
             return;
         }
 
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put("id", currency.getId());
-        placeholders.put("name", currency.getDisplayName());
-        placeholders.put("symbol", currency.getSymbol());
-        placeholders.put("singular", currency.getNameSingular());
-        placeholders.put("plural", currency.getNamePlural());
-        placeholders.put("format", currency.format(1000.50));
-        placeholders.put("decimals", String.valueOf(currency.getDecimalPlaces()));
-        placeholders.put("starter", currency.format(currency.getStarterBalance()));
-        placeholders.put("min", String.valueOf(currency.getMinBalance()));
-        placeholders.put("max", currency.getMaxBalance() == -1 ? "Unlimited" : String.valueOf(currency.getMaxBalance()));
-        placeholders.put("pay-enabled", currency.isPayEnabled() ? "Yes" : "No");
-        placeholders.put("default", currency.isDefault() ? "Yes" : "No");
+        MessageArgs placeholders = new MessageArgs()
+                .set("id", currency.getId())
+                .set("name", currency.getDisplayName())
+                .set("symbol", currency.getSymbol())
+                .set("singular", currency.getNameSingular())
+                .set("plural", currency.getNamePlural())
+                .set("format", currency.format(1000.50))
+                .set("decimals", String.valueOf(currency.getDecimalPlaces()))
+                .set("starter", currency.format(currency.getStarterBalance()))
+                .set("min", String.valueOf(currency.getMinBalance()))
+                .set("max", currency.getMaxBalance() == -1 ? "Unlimited" : String.valueOf(currency.getMaxBalance()))
+                .set("pay-enabled", currency.isPayEnabled() ? "Yes" : "No")
+                .set("default", currency.isDefault() ? "Yes" : "No");
 
         sender.sendMessage(plugin.getConfigManager().getMessage("currency.info.header", placeholders, false));
         sender.sendMessage(plugin.getConfigManager().getMessage("currency.info.id", placeholders, false));
@@ -10,9 +10,14 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import tr.balzach.coderaEconomy.CoderaEconomy;
+import tr.balzach.coderaEconomy.config.MessageArgs;
 import tr.balzach.coderaEconomy.currency.Currency;
+import tr.balzach.coderaEconomy.database.BulkOperation;
+import tr.balzach.coderaEconomy.database.MainThreadMonitor;
 
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
 
 /**
  * Main economy command - /economy, /eco, /ekonomi, /ce
@@ -20,6 +25,9 @@ import java.util.*;
  */
 public class EconomyCommand implements CommandExecutor, TabCompleter {
 
+    // Call sites listed by /eco debug mainthread, the most expensive first
+    private static final int DEBUG_SITE_LIMIT = 10;
+
     private final CoderaEconomy plugin;
     private final CurrencyCommand currencyCommand;
 
@@ -45,6 +53,7 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
             case "set", "ayarla" -> handleSet(sender, args);
             case "remove", "al", "take" -> handleRemove(sender, args);
             case "reset", "sifirla" -> handleReset(sender, args);
+            case "debug" -> handleDebug(sender, args);
 
             // FIXED: Currency subcommand integration
             case "currency", "currencies", "parabirimi", "para" -> {
@@ -130,8 +139,8 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
         if (args.length >= 4) {
             currency = plugin.getCurrencyManager().getCurrency(args[3]);
             if (currency == null) {
-                Map<String, String> placeholders = new HashMap<>();
-                placeholders.put("currency", args[3]);
+                MessageArgs placeholders = new MessageArgs()
+                        .set("currency", args[3]);
                 sender.sendMessage(plugin.getConfigManager().getMessage("currency.not-found", placeholders));
                 return;
             }
@@ -144,7 +153,7 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
             return;
         }
 
-        OfflinePlayer target = Bukkit.getOfflinePlayer(targetName);
+        OfflinePlayer target = plugin.getDatabaseManager().getOfflinePlayer(targetName);
         String finalName = target.getName() != null ? target.getName() : targetName;
 
         boolean success = plugin.getDatabaseManager().addBalance(
@@ -163,19 +172,19 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
                     "ADMIN_GIVE"
             );
 
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("player", finalName);
-            placeholders.put("amount", currency.format(amount));
-            placeholders.put("currency", currency.getDisplayName());
+            MessageArgs placeholders = new MessageArgs()
+                    .set("player", finalName)
+                    .set("amount", currency.format(amount))
+                    .set("currency", currency.getDisplayName());
 
             sender.sendMessage(plugin.getConfigManager().getMessage("admin.give.success", placeholders));
 
             Player targetPlayer = target.getPlayer();
             if (targetPlayer != null && targetPlayer.isOnline()) {
-                Map<String, String> notifyPlaceholders = new HashMap<>();
-                notifyPlaceholders.put("sender", sender.getName());
-                notifyPlaceholders.put("amount", currency.format(amount));
-                notifyPlaceholders.put("currency", currency.getDisplayName());
+                MessageArgs notifyPlaceholders = new MessageArgs()
+                        .set("sender", sender.getName())
+                        .set("amount", currency.format(amount))
+                        .set("currency", currency.getDisplayName());
                 targetPlayer.sendMessage(plugin.getConfigManager().getMessage("admin.give.notify", notifyPlaceholders));
             }
         } else {
@@ -184,39 +193,7 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
     }
 
     private void handleBulkGive(@NotNull CommandSender sender, double amount, @NotNull Currency currency) {
-        sender.sendMessage(plugin.getConfigManager().getMessage("admin.bulk.processing", new HashMap<>(), false));
-
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            List<UUID> allPlayers = plugin.getDatabaseManager().getAllPlayerUUIDs();
-            int successCount = 0;
-            int failCount = 0;
-
-            for (UUID uuid : allPlayers) {
-                OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
-                String name = player.getName() != null ? player.getName() : "Unknown";
-
-                boolean success = plugin.getDatabaseManager().addBalance(uuid, name, currency.getId(), amount);
-
-                if (success) {
-                    plugin.getDatabaseManager().recordTransaction(null, uuid, currency.getId(), amount, "ADMIN_GIVE_ALL");
-                    successCount++;
-                } else {
-                    failCount++;
-                }
-            }
-
-            int finalSuccess = successCount;
-            int finalFail = failCount;
-
-            Bukkit.getScheduler().runTask(plugin, () -> {
-                Map<String, String> placeholders = new HashMap<>();
-                placeholders.put("success", String.valueOf(finalSuccess));
-                placeholders.put("fail", String.valueOf(finalFail));
-                placeholders.put("amount", currency.format(amount));
-                placeholders.put("currency", currency.getDisplayName());
-                sender.sendMessage(plugin.getConfigManager().getMessage("admin.bulk.give-complete", placeholders));
-            });
-        });
+        runBulk(sender, BulkOperation.give(currency, amount), "admin.bulk.give-complete");
     }
 
     /**
@@ -252,8 +229,8 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
         if (args.length >= 4) {
             currency = plugin.getCurrencyManager().getCurrency(args[3]);
             if (currency == null) {
-                Map<String, String> placeholders = new HashMap<>();
-                placeholders.put("currency", args[3]);
+                MessageArgs placeholders = new MessageArgs()
+                        .set("currency", args[3]);
                 sender.sendMessage(plugin.getConfigManager().getMessage("currency.not-found", placeholders));
                 return;
             }
@@ -271,7 +248,7 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
             return;
         }
 
-        OfflinePlayer target = Bukkit.getOfflinePlayer(targetName);
+        OfflinePlayer target = plugin.getDatabaseManager().getOfflinePlayer(targetName);
         String finalName = target.getName() != null ? target.getName() : targetName;
 
         boolean success = plugin.getDatabaseManager().setBalance(
@@ -284,19 +261,19 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
         if (success) {
             plugin.getDatabaseManager().recordTransaction(null, target.getUniqueId(), currency.getId(), amount, "ADMIN_SET");
 
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("player", finalName);
-            placeholders.put("amount", currency.format(amount));
-            placeholders.put("currency", currency.getDisplayName());
+            MessageArgs placeholders = new MessageArgs()
+                    .set("player", finalName)
+                    .set("amount", currency.format(amount))
+                    .set("currency", currency.getDisplayName());
 
             sender.sendMessage(plugin.getConfigManager().getMessage("admin.set.success", placeholders));
 
             Player targetPlayer = target.getPlayer();
             if (targetPlayer != null && targetPlayer.isOnline()) {
-                Map<String, String> notifyPlaceholders = new HashMap<>();
-                notifyPlaceholders.put("sender", sender.getName());
-                notifyPlaceholders.put("amount", currency.format(amount));
-                notifyPlaceholders.put("currency", currency.getDisplayName());
+                MessageArgs notifyPlaceholders = new MessageArgs()
+                        .set("sender", sender.getName())
+                        .set("amount", currency.format(amount))
+                        .set("currency", currency.getDisplayName());
                 targetPlayer.sendMessage(plugin.getConfigManager().getMessage("admin.set.notify", notifyPlaceholders));
             }
         } else {
@@ -305,39 +282,7 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
     }
 
     private void handleBulkSet(@NotNull CommandSender sender, double amount, @NotNull Currency currency) {
-        sender.sendMessage(plugin.getConfigManager().getMessage("admin.bulk.processing", new HashMap<>(), false));
-
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            List<UUID> allPlayers = plugin.getDatabaseManager().getAllPlayerUUIDs();
-            int successCount = 0;
-            int failCount = 0;
-
-            for (UUID uuid : allPlayers) {
-                OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
-                String name = player.getName() != null ? player.getName() : "Unknown";
-
-                boolean success = plugin.getDatabaseManager().setBalance(uuid, name, currency.getId(), amount);
-
-                if (success) {
-                    plugin.getDatabaseManager().recordTransaction(null, uuid, currency.getId(), amount, "ADMIN_SET_ALL");
-                    successCount++;
-                } else {
-                    failCount++;
-                }
-            }
-
-            int finalSuccess = successCount;
-            int finalFail = failCount;
-
-            Bukkit.getScheduler().runTask(plugin, () -> {
-                Map<String, String> placeholders = new HashMap<>();
-                placeholders.put("success", String.valueOf(finalSuccess));
-                placeholders.put("fail", String.valueOf(finalFail));
-                placeholders.put("amount", currency.format(amount));
-                placeholders.put("currency", currency.getDisplayName());
-                sender.sendMessage(plugin.getConfigManager().getMessage("admin.bulk.set-complete", placeholders));
-            });
-        });
+        runBulk(sender, BulkOperation.set(currency, amount), "admin.bulk.set-complete");
     }
 
     /**
@@ -373,8 +318,8 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
         if (args.length >= 4) {
             currency = plugin.getCurrencyManager().getCurrency(args[3]);
             if (currency == null) {
-                Map<String, String> placeholders = new HashMap<>();
-                placeholders.put("currency", args[3]);
+                MessageArgs placeholders = new MessageArgs()
+                        .set("currency", args[3]);
                 sender.sendMessage(plugin.getConfigManager().getMessage("currency.not-found", placeholders));
                 return;
             }
@@ -387,7 +332,7 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
             return;
         }
 
-        OfflinePlayer target = Bukkit.getOfflinePlayer(targetName);
+        OfflinePlayer target = plugin.getDatabaseManager().getOfflinePlayer(targetName);
         String finalName = target.getName() != null ? target.getName() : targetName;
 
         boolean success = plugin.getDatabaseManager().removeBalance(
@@ -400,19 +345,19 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
         if (success) {
             plugin.getDatabaseManager().recordTransaction(null, target.getUniqueId(), currency.getId(), -amount, "ADMIN_REMOVE");
 
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("player", finalName);
-            placeholders.put("amount", currency.format(amount));
-            placeholders.put("currency", currency.getDisplayName());
+            MessageArgs placeholders = new MessageArgs()
+                    .set("player", finalName)
+                    .set("amount", currency.format(amount))
+                    .set("currency", currency.getDisplayName());
 
             sender.sendMessage(plugin.getConfigManager().getMessage("admin.remove.success", placeholders));
 
             Player targetPlayer = target.getPlayer();
             if (targetPlayer != null && targetPlayer.isOnline()) {
-                Map<String, String> notifyPlaceholders = new HashMap<>();
-                notifyPlaceholders.put("sender", sender.getName());
-                notifyPlaceholders.put("amount", currency.format(amount));
-                notifyPlaceholders.put("currency", currency.getDisplayName());
+                MessageArgs notifyPlaceholders = new MessageArgs()
+                        .set("sender", sender.getName())
+                        .set("amount", currency.format(amount))
+                        .set("currency", currency.getDisplayName());
                 targetPlayer.sendMessage(plugin.getConfigManager().getMessage("admin.remove.notify", notifyPlaceholders));
             }
         } else {
@@ -421,39 +366,7 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
     }
 
     private void handleBulkRemove(@NotNull CommandSender sender, double amount, @NotNull Currency currency) {
-        sender.sendMessage(plugin.getConfigManager().getMessage("admin.bulk.processing", new HashMap<>(), false));
-
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            List<UUID> allPlayers = plugin.getDatabaseManager().getAllPlayerUUIDs();
-            int successCount = 0;
-            int failCount = 0;
-
-            for (UUID uuid : allPlayers) {
-                OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
-                String name = player.getName() != null ? player.getName() : "Unknown";
-
-                boolean success = plugin.getDatabaseManager().removeBalance(uuid, name, currency.getId(), amount);
-
-                if (success) {
-                    plugin.getDatabaseManager().recordTransaction(null, uuid, currency.getId(), -amount, "ADMIN_REMOVE_ALL");
-                    successCount++;
-                } else {
-                    failCount++;
-                }
-            }
-
-            int finalSuccess = successCount;
-            int finalFail = failCount;
-
-            Bukkit.getScheduler().runTask(plugin, () -> {
-                Map<String, String> placeholders = new HashMap<>();
-                placeholders.put("success", String.valueOf(finalSuccess));
-                placeholders.put("fail", String.valueOf(finalFail));
-                placeholders.put("amount", currency.format(amount));
-                placeholders.put("currency", currency.getDisplayName());
-                sender.sendMessage(plugin.getConfigManager().getMessage("admin.bulk.remove-complete", placeholders));
-            });
-        });
+        runBulk(sender, BulkOperation.remove(currency, amount), "admin.bulk.remove-complete");
     }
 
     /**
@@ -476,8 +389,8 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
         if (args.length >= 3) {
             currency = plugin.getCurrencyManager().getCurrency(args[2]);
             if (currency == null) {
-                Map<String, String> placeholders = new HashMap<>();
-                placeholders.put("currency", args[2]);
+                MessageArgs placeholders = new MessageArgs()
+                        .set("currency", args[2]);
                 sender.sendMessage(plugin.getConfigManager().getMessage("currency.not-found", placeholders));
                 return;
             }
@@ -490,7 +403,7 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
             return;
         }
 
-        OfflinePlayer target = Bukkit.getOfflinePlayer(targetName);
+        OfflinePlayer target = plugin.getDatabaseManager().getOfflinePlayer(targetName);
         String finalName = target.getName() != null ? target.getName() : targetName;
         double starterBalance = currency.getStarterBalance();
 
@@ -504,17 +417,17 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
         if (success) {
             plugin.getDatabaseManager().recordTransaction(null, target.getUniqueId(), currency.getId(), 0, "ADMIN_RESET");
 
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("player", finalName);
-            placeholders.put("currency", currency.getDisplayName());
+            MessageArgs placeholders = new MessageArgs()
+                    .set("player", finalName)
+                    .set("currency", currency.getDisplayName());
 
             sender.sendMessage(plugin.getConfigManager().getMessage("admin.reset.success", placeholders));
 
             Player targetPlayer = target.getPlayer();
             if (targetPlayer != null && targetPlayer.isOnline()) {
-                Map<String, String> notifyPlaceholders = new HashMap<>();
-                notifyPlaceholders.put("sender", sender.getName());
-                notifyPlaceholders.put("currency", currency.getDisplayName());
+                MessageArgs notifyPlaceholders = new MessageArgs()
+                        .set("sender", sender.getName())
+                        .set("currency", currency.getDisplayName());
                 targetPlayer.sendMessage(plugin.getConfigManager().getMessage("admin.reset.notify", notifyPlaceholders));
             }
         } else {
@@ -523,41 +436,141 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
     }
 
     private void handleBulkReset(@NotNull CommandSender sender, @NotNull Currency currency) {
-        sender.sendMessage(plugin.getConfigManager().getMessage("admin.bulk.processing", new HashMap<>(), false));
-
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            List<UUID> allPlayers = plugin.getDatabaseManager().getAllPlayerUUIDs();
-            int successCount = 0;
-            int failCount = 0;
-            double starterBalance = currency.getStarterBalance();
+        runBulk(sender, BulkOperation.reset(currency), "admin.bulk.reset-complete");
+    }
 
-            for (UUID uuid : allPlayers) {
-                OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
-                String name = player.getName() != null ? player.getName() : "Unknown";
+    /**
+     * Runs a bulk operation off the main thread and reports progress every 25%
+     */
+    private void runBulk(@NotNull CommandSender sender, @NotNull BulkOperation operation, @NotNull String completeKey) {
+        sender.sendMessage(plugin.getConfigManager().getMessage("admin.bulk.processing", false));
 
-                boolean success = plugin.getDatabaseManager().setBalance(uuid, name, currency.getId(), starterBalance);
+        plugin.getDatabaseManager().runLongAsync(() -> {
+            int total = plugin.getDatabaseManager().getTotalPlayers();
+            int[] lastStep = {0};
 
-                if (success) {
-                    plugin.getDatabaseManager().recordTransaction(null, uuid, currency.getId(), 0, "ADMIN_RESET_ALL");
-                    successCount++;
-                } else {
-                    failCount++;
+            BulkOperation.Result result = plugin.getDatabaseManager().applyBulk(operation, processed -> {
+                int percent = total > 0 ? (int) Math.min(100, processed * 100L / total) : 100;
+                if (percent / 25 <= lastStep[0] || processed >= total) {
+                    return;
                 }
-            }
-
-            int finalSuccess = successCount;
-            int finalFail = failCount;
+                lastStep[0] = percent / 25;
+
+                MessageArgs placeholders = new MessageArgs()
+                        .set("processed", String.valueOf(processed))
+                        .set("total", String.valueOf(total))
+                        .set("percent", String.valueOf(percent));
+                String message = plugin.getConfigManager().getMessage("admin.bulk.progress", placeholders, false);
+                Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+            });
 
             Bukkit.getScheduler().runTask(plugin, () -> {
-                Map<String, String> placeholders = new HashMap<>();
-                placeholders.put("success", String.valueOf(finalSuccess));
-                placeholders.put("fail", String.valueOf(finalFail));
-                placeholders.put("currency", currency.getDisplayName());
-                sender.sendMessage(plugin.getConfigManager().getMessage("admin.bulk.reset-complete", placeholders));
+                if (result == null) {
+                    sender.sendMessage(plugin.getConfigManager().getMessage("admin.error"));
+                    return;
+                }
+
+                Currency currency = operation.currency();
+                MessageArgs placeholders = new MessageArgs()
+                        .set("success", String.valueOf(result.success()))
+                        .set("fail", String.valueOf(result.failed()))
+                        .set("amount", currency.format(Math.abs(operation.amount())))
+                        .set("currency", currency.getDisplayName());
+                sender.sendMessage(plugin.getConfigManager().getMessage(completeKey, placeholders));
             });
+        }).exceptionally(e -> {
+            if (e instanceof RejectedExecutionException) {
+                sender.sendMessage(plugin.getConfigManager().getMessage("storage-busy"));
+            } else {
+                plugin.getLogger().log(Level.SEVERE, "Bulk operation failed", e);
+            }
+            return null;
         });
     }
 
+    /**
+     * /eco debug mainthread [reset] | storage
+     */
+    private void handleDebug(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (!sender.hasPermission("coderaeconomy.admin.debug")) {
+            sender.sendMessage(plugin.getConfigManager().getMessage("no-permission"));
+            return;
+        }
+
+        String target = args.length >= 2 ? args[1].toLowerCase() : "";
+        switch (target) {
+            case "mainthread" -> showMainThreadCalls(sender, args);
+            case "storage" -> showStorageStats(sender);
+            default -> sender.sendMessage(plugin.getConfigManager().getMessage("admin.usage.debug"));
+        }
+    }
+
+    /**
+     * /eco debug storage - live counters of the storage layer
+     */
+    private void showStorageStats(@NotNull CommandSender sender) {
+        sender.sendMessage(plugin.getConfigManager().getMessage("admin.debug.storage-header", false));
+
+        MessageArgs executor = new MessageArgs()
+                .set("stats", plugin.getDatabaseManager().getExecutorStats().toString());
+        sender.sendMessage(plugin.getConfigManager().getMessage("admin.debug.executor", executor, false));
+
+        MessageArgs cache = new MessageArgs()
+                .set("stats", plugin.getDatabaseManager().getCacheStats().toString());
+        sender.sendMessage(plugin.getConfigManager().getMessage("admin.debug.cache", cache, false));
+
+        MessageArgs sql = new MessageArgs()
+                .set("storage", plugin.getDatabaseManager().getStorageName())
+                .set("reads", plugin.getDatabaseManager().getReadMetrics().toString())
+                .set("writes", plugin.getDatabaseManager().getWriteMetrics().toString());
+        sender.sendMessage(plugin.getConfigManager().getMessage("admin.debug.sql", sql, false));
+
+        MessageArgs joins = new MessageArgs()
+                .set("warm", String.valueOf(plugin.getDatabaseManager().getWarmJoinCount()))
+                .set("total", String.valueOf(plugin.getDatabaseManager().getJoinCount()))
+                .set("rate", String.format("%.1f", plugin.getDatabaseManager().getWarmJoinRate() * 100));
+        sender.sendMessage(plugin.getConfigManager().getMessage("admin.debug.joins", joins, false));
+    }
+
+    private void showMainThreadCalls(@NotNull CommandSender sender, @NotNull String[] args) {
+        MainThreadMonitor monitor = plugin.getDatabaseManager().getMainThreadMonitor();
+        if (args.length >= 3 && args[2].equalsIgnoreCase("reset")) {
+            monitor.reset();
+            sender.sendMessage(plugin.getConfigManager().getMessage("admin.debug.reset"));
+            return;
+        }
+
+        List<MainThreadMonitor.SiteSnapshot> sites = monitor.snapshot();
+        if (sites.isEmpty()) {
+            sender.sendMessage(plugin.getConfigManager().getMessage("admin.debug.empty"));
+            return;
+        }
+
+        long calls = 0;
+        double totalMillis = 0;
+        for (MainThreadMonitor.SiteSnapshot site : sites) {
+            calls += site.count();
+            totalMillis += site.totalMillis();
+        }
+
+        long minutes = (System.currentTimeMillis() - monitor.getSince()) / 60_000;
+        MessageArgs headerPlaceholders = new MessageArgs()
+                .set("minutes", String.valueOf(minutes))
+                .set("calls", String.valueOf(calls))
+                .set("total", String.format("%.1f", totalMillis));
+        sender.sendMessage(plugin.getConfigManager().getMessage("admin.debug.header", headerPlaceholders, false));
+
+        for (MainThreadMonitor.SiteSnapshot site : sites.subList(0, Math.min(DEBUG_SITE_LIMIT, sites.size()))) {
+            MessageArgs entryPlaceholders = new MessageArgs()
+                    .set("site", site.site())
+                    .set("calls", String.valueOf(site.count()))
+                    .set("avg", String.format("%.2f", site.averageMillis()))
+                    .set("max", String.format("%.2f", site.maxMillis()))
+                    .set("histogram", site.histogramString());
+            sender.sendMessage(plugin.getConfigManager().getMessage("admin.debug.entry", entryPlaceholders, false));
+        }
+    }
+
     @Override
     @Nullable
     public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
@@ -569,7 +582,7 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
             subCommands.add("currency"); // FIXED: Added currency to tab completion
 
             if (sender.hasPermission("coderaeconomy.admin")) {
-                subCommands.addAll(Arrays.asList("reload", "give", "set", "remove", "reset"));
+                subCommands.addAll(Arrays.asList("reload", "give", "set", "remove", "reset", "debug"));
             }
 
             for (String sub : subCommands) {
@@ -587,17 +600,21 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
                 return completions;
             }
 
+            if (subCommand.equals("debug") && sender.hasPermission("coderaeconomy.admin.debug")) {
+                for (String target : List.of("mainthread", "storage")) {
+                    if (target.startsWith(args[1].toLowerCase())) {
+                        completions.add(target);
+                    }
+                }
+                return completions;
+            }
+
             if (sender.hasPermission("coderaeconomy.admin")) {
                 if (subCommand.equals("give") || subCommand.equals("set") ||
                         subCommand.equals("remove") || subCommand.equals("reset")) {
 
                     completions.add("all");
-
-                    for (Player player : Bukkit.getOnlinePlayers()) {
-                        if (player.getName().toLowerCase().startsWith(args[1].toLowerCase())) {
-                            completions.add(player.getName());
-                        }
-                    }
+                    completions.addAll(plugin.getDatabaseManager().completeUsernames(args[1]));
                 }
             }
         } else if (args.length == 3) {
@@ -613,12 +630,18 @@ public class EconomyCommand implements CommandExecutor, TabCompleter {
                 return completions;
             }
 
+            if (subCommand.equals("debug") && args[1].equalsIgnoreCase("mainthread")
+                    && sender.hasPermission("coderaeconomy.admin.debug")) {
+                completions.add("reset");
+                return completions;
+            }
+
             if (sender.hasPermission("coderaeconomy.admin")) {
                 if (subCommand.equals("give") || subCommand.equals("set") || subCommand.equals("remove")) {
                     completions.addAll(Arrays.asList("100", "500", "1000", "5000", "10000"));
                 }
             }
-        } else if (args.length == 4 && sender.hasPermission("coderaeconomy.admin")) {
+        } else if (args.length == 4 && !args[0].equalsIgnoreCase("debug") && sender.hasPermission("coderaeconomy.admin")) {
             for (String currencyId : plugin.getCurrencyManager().getCurrencyIds()) {
                 if (currencyId.toLowerCase().startsWith(args[3].toLowerCase())) {
                     completions.add(currencyId);
@@ -10,9 +10,13 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import tr.balzach.coderaEconomy.CoderaEconomy;
+import tr.balzach.coderaEconomy.config.MessageArgs;
 import tr.balzach.coderaEconomy.currency.Currency;
+import tr.balzach.coderaEconomy.util.Money;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
 
 /**
  * Pay command with confirmation system - /pay, /payconfirm
@@ -22,6 +26,9 @@ public class PayCommand implements CommandExecutor, TabCompleter {
 
     private final CoderaEconomy plugin;
 
+    // Players with a payment step running on the storage executor
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
     public PayCommand(@NotNull CoderaEconomy plugin) {
         this.plugin = plugin;
     }
@@ -53,8 +60,8 @@ public class PayCommand implements CommandExecutor, TabCompleter {
         if (args.length == 3) {
             currency = plugin.getCurrencyManager().getCurrency(args[2]);
             if (currency == null) {
-                Map<String, String> placeholders = new HashMap<>();
-                placeholders.put("currency", args[2]);
+                MessageArgs placeholders = new MessageArgs()
+                        .set("currency", args[2]);
                 sender.sendMessage(plugin.getConfigManager().getMessage("currency.not-found", placeholders));
                 return true;
             }
@@ -63,31 +70,12 @@ public class PayCommand implements CommandExecutor, TabCompleter {
         }
 
         if (!currency.isPayEnabled()) {
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("currency", currency.getDisplayName());
+            MessageArgs placeholders = new MessageArgs()
+                    .set("currency", currency.getDisplayName());
             sender.sendMessage(plugin.getConfigManager().getMessage("pay.disabled-currency", placeholders));
             return true;
         }
 
-        // FIX #21: Offline player kontrolü - gerçek oyuncu mu?
-        OfflinePlayer target = Bukkit.getOfflinePlayer(args[0]);
-
-        // Eğer hasPlayedBefore() false ise, bu hiç giriş yapmamış bir oyuncu
-        if (!target.hasPlayedBefore() && !target.isOnline()) {
-            sender.sendMessage(plugin.getConfigManager().getMessage("player-not-found"));
-            return true;
-        }
-
-        if (!plugin.getDatabaseManager().hasAccount(target.getUniqueId())) {
-            sender.sendMessage(plugin.getConfigManager().getMessage("player-not-found"));
-            return true;
-        }
-
-        if (player.getUniqueId().equals(target.getUniqueId())) {
-            sender.sendMessage(plugin.getConfigManager().getMessage("pay.self-pay"));
-            return true;
-        }
-
         double amount;
         try {
             amount = Double.parseDouble(args[1]);
@@ -105,23 +93,47 @@ public class PayCommand implements CommandExecutor, TabCompleter {
         double maxAmount = currency.getPayMaxAmount();
 
         if (amount < minAmount) {
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("amount", currency.format(minAmount));
+            MessageArgs placeholders = new MessageArgs()
+                    .set("amount", currency.format(minAmount));
             sender.sendMessage(plugin.getConfigManager().getMessage("pay.min-amount", placeholders));
             return true;
         }
 
         if (maxAmount != -1 && amount > maxAmount) {
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("amount", currency.format(maxAmount));
+            MessageArgs placeholders = new MessageArgs()
+                    .set("amount", currency.format(maxAmount));
             sender.sendMessage(plugin.getConfigManager().getMessage("pay.max-amount", placeholders));
             return true;
         }
 
         // FIX #22: Double overflow kontrolü
         double taxPercentage = currency.getPayTaxPercentage();
-        double tax = amount * taxPercentage;
-        double totalRequired = amount + tax;
+        double tax;
+        double totalRequired;
+
+        if (plugin.getDatabaseManager().isFixedPoint()) {
+            // Exact minor-unit math: amount and tax are rounded to the currency's decimal places
+            try {
+                int scale = currency.getDecimalPlaces();
+                long amountMinor = Money.toMinor(amount, scale);
+                long taxMinor = Money.percentOf(amountMinor, taxPercentage);
+
+                amount = Money.toMajor(amountMinor, scale);
+                tax = Money.toMajor(taxMinor, scale);
+                totalRequired = Money.toMajor(Money.add(amountMinor, taxMinor), scale);
+            } catch (ArithmeticException | IllegalArgumentException e) {
+                sender.sendMessage(plugin.getConfigManager().getMessage("invalid-amount"));
+                return true;
+            }
+
+            if (amount <= 0) {
+                sender.sendMessage(plugin.getConfigManager().getMessage("invalid-amount"));
+                return true;
+            }
+        } else {
+            tax = amount * taxPercentage;
+            totalRequired = amount + tax;
+        }
 
         // Infinity veya çok büyük değer kontrolü
         if (Double.isInfinite(totalRequired) || totalRequired > Double.MAX_VALUE / 2) {
@@ -129,40 +141,78 @@ public class PayCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
+        // Bukkit's player API is not thread-safe: the target is resolved here and only its id and name go async
+        OfflinePlayer target = plugin.getDatabaseManager().getOfflinePlayer(args[0]);
+
+        // FIX #21: Offline player kontrolü - gerçek oyuncu mu?
+        // Eğer hasPlayedBefore() false ise, bu hiç giriş yapmamış bir oyuncu
+        if (!target.hasPlayedBefore() && !target.isOnline()) {
+            sender.sendMessage(plugin.getConfigManager().getMessage("player-not-found"));
+            return true;
+        }
+
+        if (player.getUniqueId().equals(target.getUniqueId())) {
+            sender.sendMessage(plugin.getConfigManager().getMessage("pay.self-pay"));
+            return true;
+        }
+
+        // Accounts and balances hit the database, so the rest runs on the storage executor
+        String targetName = target.getName() != null ? target.getName() : "Unknown";
+        Payment payment = new Payment(target.getUniqueId(), targetName, currency, amount, tax, totalRequired);
+        runGuarded(player, () -> preparePayment(player, payment));
+        return true;
+    }
+
+    /**
+     * Checks the target's account and the sender's balance, then asks for confirmation (storage thread)
+     */
+    private void preparePayment(@NotNull Player player, @NotNull Payment payment) {
+        Currency currency = payment.currency();
+
+        if (!plugin.getDatabaseManager().hasAccount(payment.target())) {
+            reply(player, plugin.getConfigManager().getMessage("player-not-found"));
+            return;
+        }
+
         double senderBalance = plugin.getDatabaseManager().getBalance(player.getUniqueId(), currency.getId());
         if (senderBalance == -1) {
             senderBalance = currency.getStarterBalance();
         }
 
-        if (senderBalance < totalRequired) {
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("amount", currency.format(totalRequired));
-            sender.sendMessage(plugin.getConfigManager().getMessage("pay.insufficient-funds", placeholders));
-            return true;
+        if (senderBalance < payment.totalRequired()) {
+            MessageArgs placeholders = new MessageArgs()
+                    .set("amount", currency.format(payment.totalRequired()));
+            reply(player, plugin.getConfigManager().getMessage("pay.insufficient-funds", placeholders));
+            return;
         }
 
         plugin.addPendingPayment(player.getUniqueId(),
-                new CoderaEconomy.PendingPayment(target.getUniqueId(), currency.getId(), amount, tax));
+                new CoderaEconomy.PendingPayment(payment.target(), payment.targetName(), currency.getId(),
+                        payment.amount(), payment.tax()));
+
+        List<String> messages = new ArrayList<>(5);
 
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put("player", target.getName() != null ? target.getName() : "Unknown");
-        placeholders.put("amount", currency.format(amount));
-        placeholders.put("currency", currency.getDisplayName());
+        MessageArgs placeholders = new MessageArgs()
+                .set("player", payment.targetName())
+                .set("amount", currency.format(payment.amount()))
+                .set("currency", currency.getDisplayName());
 
-        sender.sendMessage(plugin.getConfigManager().getMessage("pay.confirmation.header", placeholders, false));
-        sender.sendMessage(plugin.getConfigManager().getMessage("pay.confirmation.amount", placeholders, false));
+        messages.add(plugin.getConfigManager().getMessage("pay.confirmation.header", placeholders, false));
+        messages.add(plugin.getConfigManager().getMessage("pay.confirmation.amount", placeholders, false));
 
-        if (tax > 0) {
-            Map<String, String> taxPlaceholders = new HashMap<>();
-            taxPlaceholders.put("tax", currency.format(tax));
-            taxPlaceholders.put("total", currency.format(totalRequired));
-            sender.sendMessage(plugin.getConfigManager().getMessage("pay.confirmation.tax", taxPlaceholders, false));
+        if (payment.tax() > 0) {
+            MessageArgs taxPlaceholders = new MessageArgs()
+                    .set("tax", currency.format(payment.tax()))
+                    .set("total", currency.format(payment.totalRequired()));
+            messages.add(plugin.getConfigManager().getMessage("pay.confirmation.tax", taxPlaceholders, false));
         }
 
-        sender.sendMessage(plugin.getConfigManager().getMessage("pay.confirmation.confirm", new HashMap<>(), false));
-        sender.sendMessage(plugin.getConfigManager().getMessage("pay.confirmation.timeout", new HashMap<>(), false));
+        messages.add(plugin.getConfigManager().getMessage("pay.confirmation.confirm", false));
+        MessageArgs timeoutPlaceholders = new MessageArgs()
+                .set("seconds", String.valueOf(currency.getPayConfirmTimeout()));
+        messages.add(plugin.getConfigManager().getMessage("pay.confirmation.timeout", timeoutPlaceholders, false));
 
-        return true;
+        reply(player, messages);
     }
 
     private boolean handleConfirmation(@NotNull CommandSender sender) {
@@ -171,79 +221,134 @@ public class PayCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        CoderaEconomy.PendingPayment pending = plugin.getPendingPayment(player.getUniqueId());
+        runGuarded(player, () -> confirmPayment(player));
+        return true;
+    }
 
-        if (pending == null) {
-            sender.sendMessage(plugin.getConfigManager().getMessage("pay.no-pending"));
-            return true;
-        }
+    /**
+     * Runs a confirmed payment as one storage transaction (storage thread)
+     */
+    private void confirmPayment(@NotNull Player player) {
+        // Taken up front, a payment can only be confirmed once
+        boolean waiting = plugin.hasPendingPayment(player.getUniqueId());
+        CoderaEconomy.PendingPayment pending = plugin.takePendingPayment(player.getUniqueId());
 
-        if (System.currentTimeMillis() - pending.timestamp > 60000) {
-            plugin.removePendingPayment(player.getUniqueId());
-            sender.sendMessage(plugin.getConfigManager().getMessage("pay.expired"));
-            return true;
+        if (pending == null) {
+            // A payment that just expired is reported by the expiry listener, only one message is sent
+            if (!waiting) {
+                reply(player, plugin.getConfigManager().getMessage("pay.no-pending"));
+            }
+            return;
         }
 
         Currency currency = plugin.getCurrencyManager().getCurrency(pending.currencyId);
         if (currency == null) {
-            plugin.removePendingPayment(player.getUniqueId());
-            sender.sendMessage(plugin.getConfigManager().getMessage("pay.error"));
-            return true;
+            reply(player, plugin.getConfigManager().getMessage("pay.error"));
+            return;
         }
 
-        OfflinePlayer target = Bukkit.getOfflinePlayer(pending.target);
+        String targetName = pending.targetName;
         double totalRequired = pending.amount + pending.tax;
 
         double senderBalance = plugin.getDatabaseManager().getBalance(player.getUniqueId(), currency.getId());
         if (senderBalance < totalRequired) {
-            plugin.removePendingPayment(player.getUniqueId());
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("amount", currency.format(totalRequired));
-            sender.sendMessage(plugin.getConfigManager().getMessage("pay.insufficient-funds", placeholders));
-            return true;
+            MessageArgs placeholders = new MessageArgs()
+                    .set("amount", currency.format(totalRequired));
+            reply(player, plugin.getConfigManager().getMessage("pay.insufficient-funds", placeholders));
+            return;
         }
 
         // FIX #34: Atomik transaction kullan (rollback desteği)
         boolean success = plugin.getDatabaseManager().transferBalance(
                 player.getUniqueId(),
                 player.getName(),
-                target.getUniqueId(),
-                target.getName() != null ? target.getName() : "Unknown",
+                pending.target,
+                targetName,
                 currency.getId(),
                 totalRequired,
                 "PAY"
         );
 
-        plugin.removePendingPayment(player.getUniqueId());
-
         if (!success) {
-            sender.sendMessage(plugin.getConfigManager().getMessage("pay.error"));
-            return true;
+            reply(player, plugin.getConfigManager().getMessage("pay.error"));
+            return;
         }
 
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put("player", target.getName() != null ? target.getName() : "Unknown");
-        placeholders.put("amount", currency.format(pending.amount));
-        placeholders.put("currency", currency.getDisplayName());
+        List<String> messages = new ArrayList<>(2);
 
-        sender.sendMessage(plugin.getConfigManager().getMessage("pay.success-sender", placeholders));
+        MessageArgs placeholders = new MessageArgs()
+                .set("player", targetName)
+                .set("amount", currency.format(pending.amount))
+                .set("currency", currency.getDisplayName());
+        messages.add(plugin.getConfigManager().getMessage("pay.success-sender", placeholders));
 
         if (pending.tax > 0) {
-            Map<String, String> taxPlaceholders = new HashMap<>();
-            taxPlaceholders.put("tax", currency.format(pending.tax));
-            sender.sendMessage(plugin.getConfigManager().getMessage("pay.tax-applied", taxPlaceholders));
+            MessageArgs taxPlaceholders = new MessageArgs()
+                    .set("tax", currency.format(pending.tax));
+            messages.add(plugin.getConfigManager().getMessage("pay.tax-applied", taxPlaceholders));
         }
 
-        Player targetPlayer = target.getPlayer();
-        if (targetPlayer != null && targetPlayer.isOnline()) {
-            Map<String, String> receiverPlaceholders = new HashMap<>();
-            receiverPlaceholders.put("player", player.getName());
-            receiverPlaceholders.put("amount", currency.format(pending.amount));
-            receiverPlaceholders.put("currency", currency.getDisplayName());
-            targetPlayer.sendMessage(plugin.getConfigManager().getMessage("pay.success-receiver", receiverPlaceholders));
+        reply(player, messages);
+
+        MessageArgs receiverPlaceholders = new MessageArgs()
+                .set("player", player.getName())
+                .set("amount", currency.format(pending.amount))
+                .set("currency", currency.getDisplayName());
+        String receiverMessage = plugin.getConfigManager().getMessage("pay.success-receiver", receiverPlaceholders);
+
+        runOnMainThread(() -> {
+            Player targetPlayer = Bukkit.getPlayer(pending.target);
+            if (targetPlayer != null && targetPlayer.isOnline()) {
+                targetPlayer.sendMessage(receiverMessage);
+            }
+        });
+    }
+
+    // ═══════════════════ ASYNC HELPERS ═══════════════════
+
+    /**
+     * Runs a step of the pay flow on the storage executor, one at a time per player
+     */
+    private void runGuarded(@NotNull Player player, @NotNull Runnable task) {
+        UUID uuid = player.getUniqueId();
+        if (!inFlight.add(uuid)) {
+            player.sendMessage(plugin.getConfigManager().getMessage("pay.in-progress"));
+            return;
         }
 
-        return true;
+        plugin.getDatabaseManager().runAsync(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.SEVERE, "Payment of " + player.getName() + " failed", e);
+                reply(player, plugin.getConfigManager().getMessage("pay.error"));
+            } finally {
+                inFlight.remove(uuid);
+            }
+        }).exceptionally(e -> {
+            // Only a rejected task gets here, the task itself never throws
+            inFlight.remove(uuid);
+            reply(player, plugin.getConfigManager().getMessage("storage-busy"));
+            return null;
+        });
+    }
+
+    private void reply(@NotNull CommandSender sender, @NotNull String message) {
+        runOnMainThread(() -> sender.sendMessage(message));
+    }
+
+    private void reply(@NotNull CommandSender sender, @NotNull List<String> messages) {
+        runOnMainThread(() -> {
+            for (String message : messages) {
+                sender.sendMessage(message);
+            }
+        });
+    }
+
+    private void runOnMainThread(@NotNull Runnable task) {
+        if (plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
     }
 
     @Override
@@ -256,11 +361,10 @@ public class PayCommand implements CommandExecutor, TabCompleter {
         }
 
         if (args.length == 1) {
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                if (player.getName().toLowerCase().startsWith(args[0].toLowerCase())) {
-                    if (sender instanceof Player && !player.getUniqueId().equals(((Player) sender).getUniqueId())) {
-                        completions.add(player.getName());
-                    }
+            // Offline players too, anyone with an account can be paid
+            for (String name : plugin.getDatabaseManager().completeUsernames(args[0])) {
+                if (sender instanceof Player && !name.equalsIgnoreCase(sender.getName())) {
+                    completions.add(name);
                 }
             }
         } else if (args.length == 2) {
@@ -277,4 +381,7 @@ public class PayCommand implements CommandExecutor, TabCompleter {
 
         return completions;
     }
-}
\ No newline at end of file
+
+    private record Payment(@NotNull UUID target, @NotNull String targetName, @NotNull Currency currency,
+                           double amount, double tax, double totalRequired) {}
+}
@@ -5,6 +5,9 @@ import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.jetbrains.annotations.NotNull;
 import tr.balzach.coderaEconomy.CoderaEconomy;
+import tr.balzach.coderaEconomy.database.ExecutorType;
+import tr.balzach.coderaEconomy.database.StorageMode;
+import tr.balzach.coderaEconomy.database.StorageType;
 import tr.balzach.coderaEconomy.util.ColorUtil;
 
 import java.io.File;
@@ -12,6 +15,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.logging.Level;
 
@@ -30,13 +34,42 @@ public class ConfigManager {
     private boolean backupEnabled;
     private int backupInterval;
     private int keepBackups;
+    private StorageType storageType;
+    private StorageMode storageMode;
+    private int readPoolSize;
+    private ExecutorType storageExecutorType;
+    private int storageThreads;
+    private int storageQueueCapacity;
+    private String mysqlHost;
+    private int mysqlPort;
+    private String mysqlDatabase;
+    private String mysqlUsername;
+    private String mysqlPassword;
+    private int mysqlPoolSize;
+    private final Map<String, String> mysqlProperties = new HashMap<>();
+    private int cacheMaxPlayers;
+    private int cacheMaxEntries;
+    private boolean writeBehindEnabled;
+    private boolean fixedPointEnabled;
+    private int writeBehindFlushInterval;
+    private boolean transactionLogAsync;
+    private int transactionLogBatchSize;
+    private int transactionLogFlushInterval;
+    private int transactionLogQueueCapacity;
 
     // Baltop settings
     private boolean baltopEnabled;
     private int baltopEntriesPerPage;
     private int baltopUpdateInterval;
+    private int baltopSnapshotSize;
 
-    private final Map<String, String> messageCache = new HashMap<>();
+    // Placeholder settings
+    private long placeholderBalanceTtl;
+    private long placeholderRankTtl;
+    private long placeholderBaltopTtl;
+
+    // Read from async threads too: reload builds a new catalog and swaps it in, a catalog never changes
+    private volatile MessageCatalog catalog = new MessageCatalog(Map.of(), Map.of());
 
     public ConfigManager(@NotNull CoderaEconomy plugin) {
         this.plugin = plugin;
@@ -49,8 +82,7 @@ public class ConfigManager {
     public void reload() {
         plugin.getLogger().info("Reloading configuration...");
 
-        // Step 1: Clear all caches FIRST
-        messageCache.clear();
+        // Step 1: Messages are swapped in by loadMessages(), the old ones serve until then
 
         // Step 2: Save and reload main config
         plugin.saveDefaultConfig();
@@ -102,9 +134,13 @@ public class ConfigManager {
             }
 
             // Cache all messages recursively
-            cacheMessagesRecursive("", messages);
+            Map<String, String> loadedMessages = new HashMap<>();
+            Map<String, MessageTemplate> loadedTemplates = new HashMap<>();
+            cacheMessagesRecursive("", messages, loadedMessages, loadedTemplates);
+
+            this.catalog = new MessageCatalog(loadedMessages, loadedTemplates);
 
-            plugin.getLogger().info("Loaded " + messageCache.size() + " messages from: " + fileName);
+            plugin.getLogger().info("Loaded " + loadedMessages.size() + " messages from: " + fileName);
 
         } catch (Exception e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to load messages file: " + fileName, e);
@@ -114,25 +150,33 @@ public class ConfigManager {
     /**
      * Recursively cache all messages with color codes applied
      */
-    private void cacheMessagesRecursive(@NotNull String parentPath, @NotNull ConfigurationSection section) {
+    private void cacheMessagesRecursive(@NotNull String parentPath, @NotNull ConfigurationSection section,
+                                        @NotNull Map<String, String> messages,
+                                        @NotNull Map<String, MessageTemplate> templates) {
         for (String key : section.getKeys(false)) {
             String fullPath = parentPath.isEmpty() ? key : parentPath + "." + key;
             Object value = section.get(key);
 
             if (value instanceof ConfigurationSection) {
-                cacheMessagesRecursive(fullPath, (ConfigurationSection) value);
+                cacheMessagesRecursive(fullPath, (ConfigurationSection) value, messages, templates);
             } else if (value instanceof List<?>) {
                 List<?> list = (List<?>) value;
                 for (int i = 0; i < list.size(); i++) {
                     String listValue = String.valueOf(list.get(i));
-                    messageCache.put(fullPath + "." + i, ColorUtil.colorize(listValue));
+                    cacheMessage(messages, templates, fullPath + "." + i, ColorUtil.colorize(listValue));
                 }
             } else if (value != null) {
-                messageCache.put(fullPath, ColorUtil.colorize(String.valueOf(value)));
+                cacheMessage(messages, templates, fullPath, ColorUtil.colorize(String.valueOf(value)));
             }
         }
     }
 
+    private static void cacheMessage(@NotNull Map<String, String> messages, @NotNull Map<String, MessageTemplate> templates,
+                                     @NotNull String path, @NotNull String message) {
+        messages.put(path, message);
+        templates.put(path, MessageTemplate.compile(message));
+    }
+
     /**
      * Load all settings from config
      */
@@ -140,20 +184,72 @@ public class ConfigManager {
         backupEnabled = config.getBoolean("database.backup.enabled", true);
         backupInterval = config.getInt("database.backup.interval", 3600);
         keepBackups = config.getInt("database.backup.keep-backups", 5);
+        String type = config.getString("database.type", "SQLITE");
+        try {
+            storageType = StorageType.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Unknown database type '" + type + "', using SQLITE");
+            storageType = StorageType.SQLITE;
+        }
+        readPoolSize = config.getInt("database.read-pool-size", 4);
+        mysqlHost = config.getString("database.mysql.host", "localhost");
+        mysqlPort = config.getInt("database.mysql.port", 3306);
+        mysqlDatabase = config.getString("database.mysql.database", "coderaeconomy");
+        mysqlUsername = config.getString("database.mysql.username", "root");
+        mysqlPassword = config.getString("database.mysql.password", "");
+        mysqlPoolSize = config.getInt("database.mysql.pool-size", 0);
+        mysqlProperties.clear();
+        ConfigurationSection properties = config.getConfigurationSection("database.mysql.properties");
+        if (properties != null) {
+            for (String key : properties.getKeys(false)) {
+                mysqlProperties.put(key, String.valueOf(properties.get(key)));
+            }
+        }
+        String mode = config.getString("database.storage-mode", "POOLED");
+        try {
+            storageMode = StorageMode.valueOf(mode.toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Unknown storage mode '" + mode + "', using POOLED");
+            storageMode = StorageMode.POOLED;
+        }
+        String executorType = config.getString("database.executor.type", "PLATFORM");
+        try {
+            storageExecutorType = ExecutorType.valueOf(executorType.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Unknown executor type '" + executorType + "', using PLATFORM");
+            storageExecutorType = ExecutorType.PLATFORM;
+        }
+        storageThreads = Math.max(1, config.getInt("database.executor.threads", 4));
+        storageQueueCapacity = Math.max(0, config.getInt("database.executor.queue-capacity", 1000));
+        cacheMaxPlayers = config.getInt("database.cache.max-players", 5000);
+        cacheMaxEntries = config.getInt("database.cache.max-entries", 20000);
+        writeBehindEnabled = config.getBoolean("database.write-behind.enabled", false);
+        writeBehindFlushInterval = config.getInt("database.write-behind.flush-interval", 5);
+        fixedPointEnabled = config.getBoolean("database.fixed-point", false);
+        transactionLogAsync = config.getBoolean("database.transaction-log.async", true);
+        transactionLogBatchSize = config.getInt("database.transaction-log.batch-size", 500);
+        transactionLogFlushInterval = config.getInt("database.transaction-log.flush-interval", 250);
+        transactionLogQueueCapacity = config.getInt("database.transaction-log.queue-capacity", 10000);
 
         baltopEnabled = config.getBoolean("baltop.enabled", true);
         baltopEntriesPerPage = Math.max(1, config.getInt("baltop.entries-per-page", 10));
         baltopUpdateInterval = config.getInt("baltop.update-interval", 300);
+        baltopSnapshotSize = Math.max(1, config.getInt("baltop.snapshot-size", 100));
+
+        placeholderBalanceTtl = Math.max(0, config.getLong("placeholders.balance-ttl", 30000));
+        placeholderRankTtl = Math.max(0, config.getLong("placeholders.rank-ttl", 5000));
+        placeholderBaltopTtl = Math.max(0, config.getLong("placeholders.baltop-ttl", 5000));
 
         plugin.getLogger().info("Settings loaded - Baltop: " + baltopEnabled + ", Backup: " + backupEnabled);
     }
 
     @NotNull
     public String getMessage(@NotNull String path, boolean withPrefix) {
-        String message = messageCache.getOrDefault(path, "[MISSING: " + path + "]");
+        Map<String, String> messages = catalog.messages();
+        String message = messages.getOrDefault(path, "[MISSING: " + path + "]");
 
         if (withPrefix && !path.equals("prefix")) {
-            String prefix = messageCache.getOrDefault("prefix", "");
+            String prefix = messages.getOrDefault("prefix", "");
             return prefix + message;
         }
 
@@ -172,13 +268,42 @@ public class ConfigManager {
 
     @NotNull
     public String getMessage(@NotNull String path, @NotNull Map<String, String> placeholders, boolean withPrefix) {
-        String message = getMessage(path, withPrefix);
+        return render(path, placeholders::get, withPrefix);
+    }
+
+    @NotNull
+    public String getMessage(@NotNull String path, @NotNull MessageArgs args) {
+        return render(path, args, true);
+    }
+
+    @NotNull
+    public String getMessage(@NotNull String path, @NotNull MessageArgs args, boolean withPrefix) {
+        return render(path, args, withPrefix);
+    }
 
-        for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-            message = message.replace("%" + entry.getKey() + "%", entry.getValue());
+    /**
+     * Fills the compiled template of a message (and the prefix) in one pass
+     */
+    @NotNull
+    private String render(@NotNull String path, @NotNull MessageTemplate.Values values, boolean withPrefix) {
+        MessageCatalog catalog = this.catalog;
+        MessageTemplate template = catalog.templates().get(path);
+        if (template == null) {
+            return getMessage(path, withPrefix);
         }
 
-        return message;
+        MessageTemplate prefix = withPrefix && !path.equals("prefix") ? catalog.templates().get("prefix") : null;
+        if (prefix == null && !template.hasSlots()) {
+            return catalog.messages().get(path);
+        }
+
+        int capacity = template.getLiteralLength() + (prefix != null ? prefix.getLiteralLength() : 0) + 32;
+        StringBuilder builder = new StringBuilder(capacity);
+        if (prefix != null) {
+            prefix.appendTo(builder, values);
+        }
+        template.appendTo(builder, values);
+        return builder.toString();
     }
 
     @NotNull
@@ -188,23 +313,26 @@ public class ConfigManager {
 
     @NotNull
     public List<String> getPlayerHelpMessages() {
+        Map<String, String> messages = catalog.messages();
         return List.of(
-                messageCache.getOrDefault("help.player.0", ""),
-                messageCache.getOrDefault("help.player.1", ""),
-                messageCache.getOrDefault("help.player.2", ""),
-                messageCache.getOrDefault("help.player.3", "")
+                messages.getOrDefault("help.player.0", ""),
+                messages.getOrDefault("help.player.1", ""),
+                messages.getOrDefault("help.player.2", ""),
+                messages.getOrDefault("help.player.3", "")
         );
     }
 
     @NotNull
     public List<String> getAdminHelpMessages() {
+        Map<String, String> messages = catalog.messages();
         return List.of(
-                messageCache.getOrDefault("help.admin.0", ""),
-                messageCache.getOrDefault("help.admin.1", ""),
-                messageCache.getOrDefault("help.admin.2", ""),
-                messageCache.getOrDefault("help.admin.3", ""),
-                messageCache.getOrDefault("help.admin.4", ""),
-                messageCache.getOrDefault("help.admin.5", "")
+                messages.getOrDefault("help.admin.0", ""),
+                messages.getOrDefault("help.admin.1", ""),
+                messages.getOrDefault("help.admin.2", ""),
+                messages.getOrDefault("help.admin.3", ""),
+                messages.getOrDefault("help.admin.4", ""),
+                messages.getOrDefault("help.admin.5", ""),
+                messages.getOrDefault("help.admin.6", "")
         );
     }
 
@@ -264,6 +392,114 @@ public class ConfigManager {
         return keepBackups;
     }
 
+    @NotNull
+    public StorageType getStorageType() {
+        return storageType;
+    }
+
+    @NotNull
+    public StorageMode getStorageMode() {
+        return storageMode;
+    }
+
+    public int getReadPoolSize() {
+        return readPoolSize;
+    }
+
+    @NotNull
+    public ExecutorType getStorageExecutorType() {
+        return storageExecutorType;
+    }
+
+    /**
+     * Storage tasks running at once, the pool size for platform threads
+     */
+    public int getStorageThreads() {
+        return storageThreads;
+    }
+
+    /**
+     * Storage tasks that may wait for a thread before new ones are rejected
+     */
+    public int getStorageQueueCapacity() {
+        return storageQueueCapacity;
+    }
+
+    @NotNull
+    public String getMysqlHost() {
+        return mysqlHost;
+    }
+
+    public int getMysqlPort() {
+        return mysqlPort;
+    }
+
+    @NotNull
+    public String getMysqlDatabase() {
+        return mysqlDatabase;
+    }
+
+    @NotNull
+    public String getMysqlUsername() {
+        return mysqlUsername;
+    }
+
+    @NotNull
+    public String getMysqlPassword() {
+        return mysqlPassword;
+    }
+
+    /**
+     * Configured pool size, 0 or less means (cores * 2) + 1
+     */
+    public int getMysqlPoolSize() {
+        return mysqlPoolSize;
+    }
+
+    /**
+     * Extra JDBC driver properties from database.mysql.properties
+     */
+    @NotNull
+    public Map<String, String> getMysqlProperties() {
+        return mysqlProperties;
+    }
+
+    public int getCacheMaxPlayers() {
+        return cacheMaxPlayers;
+    }
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehindEnabled;
+    }
+
+    public int getWriteBehindFlushInterval() {
+        return writeBehindFlushInterval;
+    }
+
+    public boolean isFixedPointEnabled() {
+        return fixedPointEnabled;
+    }
+
+    public boolean isTransactionLogAsync() {
+        return transactionLogAsync;
+    }
+
+    public int getTransactionLogBatchSize() {
+        return transactionLogBatchSize;
+    }
+
+    public int getTransactionLogFlushInterval() {
+        return transactionLogFlushInterval;
+    }
+
+    public int getTransactionLogQueueCapacity() {
+        return transactionLogQueueCapacity;
+    }
+
     public boolean isBaltopEnabled() {
         return baltopEnabled;
     }
@@ -275,4 +511,25 @@ public class ConfigManager {
     public int getBaltopUpdateInterval() {
         return baltopUpdateInterval;
     }
-}
\ No newline at end of file
+
+    public int getBaltopSnapshotSize() {
+        return baltopSnapshotSize;
+    }
+
+    public long getPlaceholderBalanceTtl() {
+        return placeholderBalanceTtl;
+    }
+
+    public long getPlaceholderRankTtl() {
+        return placeholderRankTtl;
+    }
+
+    public long getPlaceholderBaltopTtl() {
+        return placeholderBaltopTtl;
+    }
+
+    /**
+     * Colorized messages and their compiled templates, from one load of the messages file
+     */
+    private record MessageCatalog(@NotNull Map<String, String> messages, @NotNull Map<String, MessageTemplate> templates) {}
+}
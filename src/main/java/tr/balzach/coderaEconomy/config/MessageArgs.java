@@ -0,0 +1,85 @@
+package tr.balzach.coderaEconomy.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Reusable holder of message placeholder values.
+ *
+ * Messages have a handful of slots, so values sit in two small arrays and
+ * are found by a linear scan, with no hashing or per-message map. Loops
+ * that render the same message many times (baltop lines) keep one holder
+ * and overwrite its values with {@link #set(String, String)}.
+ */
+public class MessageArgs implements MessageTemplate.Values {
+
+    private String[] keys;
+    private String[] values;
+    private int size;
+
+    public MessageArgs() {
+        this(4);
+    }
+
+    public MessageArgs(int capacity) {
+        this.keys = new String[Math.max(1, capacity)];
+        this.values = new String[keys.length];
+    }
+
+    /**
+     * Creates a holder from alternating keys and values: "player", name, "amount", amount
+     */
+    @NotNull
+    public static MessageArgs of(@NotNull String... keyValues) {
+        if (keyValues.length % 2 != 0) {
+            throw new IllegalArgumentException("Message arguments must be key/value pairs");
+        }
+
+        MessageArgs args = new MessageArgs(keyValues.length / 2);
+        for (int i = 0; i < keyValues.length; i += 2) {
+            args.set(keyValues[i], keyValues[i + 1]);
+        }
+        return args;
+    }
+
+    /**
+     * Sets a value, replacing the previous value of the key
+     */
+    @NotNull
+    public MessageArgs set(@NotNull String key, @NotNull String value) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key)) {
+                values[i] = value;
+                return this;
+            }
+        }
+
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        return this;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    @Nullable
+    public String get(@NotNull String slot) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(slot)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,110 @@
+package tr.balzach.coderaEconomy.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message split once into literal text and %placeholder% slots.
+ *
+ * Rendering is a single StringBuilder pass; slots without a value are kept
+ * as written, like the old String.replace chain did.
+ */
+public class MessageTemplate {
+
+    /** Values for rendering a message without any */
+    public static final Values NO_VALUES = slot -> null;
+
+    private final String[] literals;
+    private final String[] slots;
+    private final int literalLength;
+
+    private MessageTemplate(@NotNull String[] literals, @NotNull String[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    @NotNull
+    public static MessageTemplate compile(@NotNull String text) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            int end = c == '%' ? slotEnd(text, i) : -1;
+
+            if (end == -1) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+
+            literals.add(literal.toString());
+            literal.setLength(0);
+            slots.add(text.substring(i + 1, end));
+            i = end + 1;
+        }
+        literals.add(literal.toString());
+
+        return new MessageTemplate(literals.toArray(new String[0]), slots.toArray(new String[0]));
+    }
+
+    /**
+     * Finds the closing '%' of a slot opened at start, or -1 if the '%' is plain text
+     */
+    private static int slotEnd(@NotNull String text, int start) {
+        for (int i = start + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '%') {
+                return i > start + 1 ? i : -1;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    public boolean hasSlots() {
+        return slots.length > 0;
+    }
+
+    /**
+     * Length of the message without slot values, a good StringBuilder capacity
+     */
+    public int getLiteralLength() {
+        return literalLength;
+    }
+
+    public void appendTo(@NotNull StringBuilder builder, @NotNull Values values) {
+        builder.append(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            String value = values.get(slots[i]);
+            if (value != null) {
+                builder.append(value);
+            } else {
+                builder.append('%').append(slots[i]).append('%');
+            }
+            builder.append(literals[i + 1]);
+        }
+    }
+
+    /**
+     * Source of slot values, e.g. a {@link MessageArgs} or a Map::get
+     */
+    @FunctionalInterface
+    public interface Values {
+        @Nullable
+        String get(@NotNull String slot);
+    }
+}
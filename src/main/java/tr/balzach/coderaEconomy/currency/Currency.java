@@ -1,6 +1,10 @@
 package tr.balzach.coderaEconomy.currency;
 
 import org.jetbrains.annotations.NotNull;
+import tr.balzach.coderaEconomy.util.AmountFormatter;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Represents a currency in the economy system
@@ -21,8 +25,14 @@ public class Currency {
     private final double payMinAmount;
     private final double payMaxAmount;
     private final double payTaxPercentage;
+    private final int payConfirmTimeout;
     private final boolean isDefault;
 
+    // The format split around %amount%, with %symbol% already filled in
+    private final String[] templateParts;
+    private final int templateLength;
+    private final AmountFormatter amountFormatter;
+
     public Currency(
             @NotNull String id,
             @NotNull String displayName,
@@ -38,6 +48,7 @@ public class Currency {
             double payMinAmount,
             double payMaxAmount,
             double payTaxPercentage,
+            int payConfirmTimeout,
             boolean isDefault
     ) {
         this.id = id;
@@ -54,7 +65,16 @@ public class Currency {
         this.payMinAmount = payMinAmount;
         this.payMaxAmount = payMaxAmount;
         this.payTaxPercentage = payTaxPercentage;
+        this.payConfirmTimeout = payConfirmTimeout;
         this.isDefault = isDefault;
+
+        this.templateParts = compileTemplate(format, symbol);
+        int length = 0;
+        for (String part : templateParts) {
+            length += part.length();
+        }
+        this.templateLength = length;
+        this.amountFormatter = AmountFormatter.of(decimalPlaces);
     }
 
     @NotNull
@@ -119,6 +139,13 @@ public class Currency {
         return payTaxPercentage;
     }
 
+    /**
+     * Seconds a player has to /payconfirm a payment in this currency
+     */
+    public int getPayConfirmTimeout() {
+        return payConfirmTimeout;
+    }
+
     public boolean isDefault() {
         return isDefault;
     }
@@ -128,10 +155,28 @@ public class Currency {
      */
     @NotNull
     public String format(double amount) {
-        String formatted = String.format("%." + decimalPlaces + "f", amount);
-        return format
-                .replace("%amount%", formatted)
-                .replace("%symbol%", symbol);
+        StringBuilder builder = new StringBuilder(templateLength + 24);
+        appendTo(builder, amount);
+        return builder.toString();
+    }
+
+    /**
+     * Appends a formatted amount, for callers building a larger line
+     */
+    public void appendTo(@NotNull StringBuilder builder, double amount) {
+        builder.append(templateParts[0]);
+        for (int i = 1; i < templateParts.length; i++) {
+            amountFormatter.appendTo(builder, amount);
+            builder.append(templateParts[i]);
+        }
+    }
+
+    /**
+     * Formats an amount without the currency's template: 1.2K, 5.6M, 7.8B
+     */
+    @NotNull
+    public static String formatCompact(double amount) {
+        return AmountFormatter.compact().format(amount);
     }
 
     /**
@@ -144,6 +189,19 @@ public class Currency {
         return maxBalance == -1 || amount <= maxBalance;
     }
 
+    @NotNull
+    private static String[] compileTemplate(@NotNull String format, @NotNull String symbol) {
+        List<String> parts = new ArrayList<>(2);
+        int start = 0;
+        int end;
+        while ((end = format.indexOf("%amount%", start)) != -1) {
+            parts.add(format.substring(start, end).replace("%symbol%", symbol));
+            start = end + "%amount%".length();
+        }
+        parts.add(format.substring(start).replace("%symbol%", symbol));
+        return parts.toArray(new String[0]);
+    }
+
     @Override
     public String toString() {
         return "Currency{" +
@@ -119,6 +119,7 @@ public class CurrencyManager {
         double payMinAmount = section.getDouble("pay.min-amount", 1.0);
         double payMaxAmount = section.getDouble("pay.max-amount", -1.0);
         double payTaxPercentage = section.getDouble("pay.tax-percentage", 0.0);
+        int payConfirmTimeout = Math.max(1, section.getInt("pay.confirm-timeout", 60));
         boolean isDefault = section.getBoolean("default", false);
 
         return new Currency(
@@ -136,6 +137,7 @@ public class CurrencyManager {
                 payMinAmount,
                 payMaxAmount,
                 payTaxPercentage,
+                payConfirmTimeout,
                 isDefault
         );
     }
@@ -156,6 +158,7 @@ public class CurrencyManager {
                 1.0,
                 -1.0,
                 0.0,
+                60,
                 true
         );
 
@@ -0,0 +1,1120 @@
+package tr.balzach.coderaEconomy.database;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import tr.balzach.coderaEconomy.CoderaEconomy;
+import tr.balzach.coderaEconomy.currency.Currency;
+import tr.balzach.coderaEconomy.util.Money;
+import tr.balzach.coderaEconomy.util.UuidUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Storage shared by all JDBC databases.
+ *
+ * The schema is the same everywhere: binary uuids, interned currency and
+ * transaction type ids, and balances that are either doubles or long minor
+ * units depending on the currency's scale. Subclasses provide connections,
+ * create the schema and supply the SQL that differs between databases.
+ */
+public abstract class AbstractJdbcStorage implements StorageBackend {
+
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (from_uuid, to_uuid, currency_id, amount, type_id, timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Bulk operations work on one range of player uuids at a time
+    private static final String BULK_RANGE = " WHERE currency_id = ? AND uuid > ? AND uuid <= ?";
+    private static final String BULK_LIMITS = " AND balance + ? BETWEEN ? AND ?";
+
+    // Players per IN (...) list, well below SQLite's bound parameter limit
+    private static final int IN_CHUNK_SIZE = 500;
+
+    protected final CoderaEconomy plugin;
+    protected final boolean fixedPoint;
+
+    protected HikariDataSource dataSource;
+    protected final SqlMetrics readMetrics = new SqlMetrics();
+    protected final SqlMetrics writeMetrics = new SqlMetrics();
+
+    // Interned ids of currency and transaction type names
+    private final Map<String, Integer> currencyKeys = new ConcurrentHashMap<>();
+    private final Map<String, Integer> typeKeys = new ConcurrentHashMap<>();
+
+    // Storage scale per currency: -1 = double major units, otherwise long minor units
+    private final Map<String, Integer> currencyScales = new ConcurrentHashMap<>();
+
+    // Built on first use, see statements()
+    private volatile Statements statements;
+
+    protected AbstractJdbcStorage(@NotNull CoderaEconomy plugin) {
+        this.plugin = plugin;
+        this.fixedPoint = plugin.getConfigManager().isFixedPointEnabled();
+    }
+
+    // ═══════════════════ DIALECT ═══════════════════
+
+    /**
+     * Builds an INSERT that updates the given columns when the key already exists.
+     * Without update columns the row is left untouched.
+     * Never called from the constructor, so implementations may use their own fields.
+     */
+    @NotNull
+    protected abstract String upsert(@NotNull String table, @NotNull String[] columns,
+                                     @NotNull String[] keys, @NotNull String... updates);
+
+    /**
+     * Whether UPDATE ... RETURNING is available; otherwise the new value is selected afterwards
+     */
+    protected abstract boolean supportsUpdateReturning();
+
+    /**
+     * Largest magnitude a double balance can have in the balances column; larger amounts are out of range
+     */
+    protected double maxStoredAmount() {
+        return Double.MAX_VALUE;
+    }
+
+    /**
+     * The upserts every write uses, built once after the subclass is constructed
+     */
+    @NotNull
+    private Statements statements() {
+        Statements current = statements;
+        if (current == null) {
+            current = new Statements(
+                    upsert("players", new String[]{"uuid", "username", "last_updated"},
+                            new String[]{"uuid"}, "username", "last_updated"),
+                    upsert("balances", new String[]{"uuid", "currency_id", "balance"},
+                            new String[]{"uuid", "currency_id"}, "balance"),
+                    upsert("balances", new String[]{"uuid", "currency_id", "balance"},
+                            new String[]{"uuid", "currency_id"}));
+            statements = current;
+        }
+        return current;
+    }
+
+    private record Statements(@NotNull String upsertPlayer, @NotNull String upsertBalance,
+                              @NotNull String insertBalanceIfAbsent) {}
+
+    // ═══════════════════ SESSIONS ═══════════════════
+
+    protected Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    /**
+     * Runs read-only work on a pooled connection
+     */
+    protected <T> T read(@NotNull SqlWork<T> work) throws SQLException {
+        return borrow(work, readMetrics);
+    }
+
+    /**
+     * Runs work that modifies the database
+     */
+    protected <T> T write(@NotNull SqlWork<T> work) throws SQLException {
+        return borrow(work, writeMetrics);
+    }
+
+    protected <T> T borrow(@NotNull SqlWork<T> work, @NotNull SqlMetrics metrics) throws SQLException {
+        long requested = System.nanoTime();
+
+        try (SqlSession session = new SqlSession(getConnection())) {
+            long started = System.nanoTime();
+            boolean success = false;
+
+            try {
+                T result = work.run(session);
+                success = true;
+                return result;
+            } finally {
+                metrics.record(started - requested, System.nanoTime() - started, success);
+            }
+        }
+    }
+
+    /**
+     * Runs work inside a database transaction.
+     * Exceptions and a null result roll the transaction back.
+     */
+    protected <T> T inTransaction(@NotNull SqlSession session, @NotNull SqlWork<T> work) throws SQLException {
+        Connection conn = session.connection();
+        conn.setAutoCommit(false);
+
+        try {
+            T result = work.run(session);
+            if (result != null) {
+                conn.commit();
+            } else {
+                conn.rollback();
+            }
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackEx) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to rollback transaction", rollbackEx);
+            }
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    @Override
+    @NotNull
+    public SqlMetrics.Snapshot getReadMetrics() {
+        return readMetrics.snapshot();
+    }
+
+    @Override
+    @NotNull
+    public SqlMetrics.Snapshot getWriteMetrics() {
+        return writeMetrics.snapshot();
+    }
+
+    // ═══════════════════ CURRENCIES ═══════════════════
+
+    /**
+     * Interns the configured currencies and converts balances whose scale no longer
+     * matches the storage mode or the currency's decimal places.
+     * Called by subclasses once the schema exists.
+     */
+    protected void prepareCurrencies() throws SQLException {
+        write(session -> {
+            // Configured currencies get their ids up front, so reads never have to insert them
+            for (Currency currency : plugin.getCurrencyManager().getCurrencies()) {
+                currencyKey(session, currency.getId());
+            }
+
+            syncScales(session);
+            return null;
+        });
+    }
+
+    private void syncScales(@NotNull SqlSession session) throws SQLException {
+        try (ResultSet rs = session.prepare("SELECT name, scale FROM currencies").executeQuery()) {
+            while (rs.next()) {
+                currencyScales.put(rs.getString("name"), rs.getInt("scale"));
+            }
+        }
+
+        for (Currency currency : plugin.getCurrencyManager().getCurrencies()) {
+            int current = scaleOf(currency.getId());
+            int target = fixedPoint ? Math.min(Math.max(0, currency.getDecimalPlaces()), Money.MAX_SCALE) : -1;
+            if (current == target) {
+                continue;
+            }
+
+            int currencyKey = currencyKey(session, currency.getId());
+            int converted = inTransaction(session, tx -> {
+                PreparedStatement update;
+                if (target < 0) {
+                    update = tx.prepare("UPDATE balances SET balance = balance / ? WHERE currency_id = ?");
+                    update.setDouble(1, Money.pow10(current));
+                } else {
+                    update = tx.prepare("UPDATE balances SET balance = ROUND(balance * ?) WHERE currency_id = ?");
+                    update.setDouble(1, (double) Money.pow10(target) / (current < 0 ? 1 : Money.pow10(current)));
+                }
+                update.setInt(2, currencyKey);
+                int rows = update.executeUpdate();
+
+                PreparedStatement scale = tx.prepare("UPDATE currencies SET scale = ? WHERE id = ?");
+                scale.setInt(1, target);
+                scale.setInt(2, currencyKey);
+                scale.executeUpdate();
+                return rows;
+            });
+
+            currencyScales.put(currency.getId(), target);
+            plugin.getLogger().info("Converted " + converted + " " + currency.getId() + " balances to "
+                    + (target < 0 ? "double storage" : "fixed-point storage (scale " + target + ")"));
+        }
+    }
+
+    /**
+     * Gets the id of a currency, inserting it if it is new.
+     * Must be called outside of transactions that may roll back.
+     */
+    protected int currencyKey(@NotNull SqlSession session, @NotNull String currencyId) throws SQLException {
+        return intern(session, "currencies", currencyKeys, currencyId);
+    }
+
+    protected int typeKey(@NotNull SqlSession session, @NotNull String type) throws SQLException {
+        return intern(session, "transaction_types", typeKeys, type);
+    }
+
+    private int intern(@NotNull SqlSession session, @NotNull String table,
+                       @NotNull Map<String, Integer> keys, @NotNull String name) throws SQLException {
+        Integer key = lookupKey(session, table, keys, name);
+        if (key != null) {
+            return key;
+        }
+
+        PreparedStatement ps = session.prepare(upsert(table, new String[]{"name"}, new String[]{"name"}));
+        ps.setString(1, name);
+        ps.executeUpdate();
+
+        key = lookupKey(session, table, keys, name);
+        if (key == null) {
+            throw new SQLException("Failed to intern " + name + " into " + table);
+        }
+        return key;
+    }
+
+    /**
+     * Gets an interned id without inserting it (safe on read-only connections)
+     */
+    @Nullable
+    protected Integer lookupKey(@NotNull SqlSession session, @NotNull String table,
+                                @NotNull Map<String, Integer> keys, @NotNull String name) throws SQLException {
+        Integer key = keys.get(name);
+        if (key != null) {
+            return key;
+        }
+
+        PreparedStatement ps = session.prepare("SELECT id FROM " + table + " WHERE name = ?");
+        ps.setString(1, name);
+
+        try (ResultSet rs = ps.executeQuery()) {
+            if (rs.next()) {
+                key = rs.getInt(1);
+                keys.put(name, key);
+            }
+        }
+        return key;
+    }
+
+    @Nullable
+    private Integer lookupCurrencyKey(@NotNull SqlSession session, @NotNull String currencyId) throws SQLException {
+        return lookupKey(session, "currencies", currencyKeys, currencyId);
+    }
+
+    // ═══════════════════ AMOUNTS ═══════════════════
+
+    @Override
+    public boolean isFixedPoint() {
+        return fixedPoint;
+    }
+
+    /**
+     * Gets the storage scale of a currency, -1 when it is stored as double
+     */
+    protected int scaleOf(@NotNull String currencyId) {
+        return currencyScales.getOrDefault(currencyId, -1);
+    }
+
+    protected static void setAmount(@NotNull PreparedStatement ps, int index, double amount, int scale) throws SQLException {
+        if (scale < 0) {
+            ps.setDouble(index, amount);
+        } else {
+            ps.setLong(index, Money.toMinor(amount, scale));
+        }
+    }
+
+    protected static double getAmount(@NotNull ResultSet rs, @NotNull String column, int scale) throws SQLException {
+        return scale < 0 ? rs.getDouble(column) : Money.toMajor(rs.getLong(column), scale);
+    }
+
+    @Override
+    public double normalize(@NotNull String currencyId, double amount) {
+        int scale = scaleOf(currencyId);
+        if (scale < 0) {
+            return Math.abs(amount) <= maxStoredAmount() ? amount : Double.NaN;
+        }
+
+        try {
+            return Money.round(amount, scale);
+        } catch (ArithmeticException e) {
+            return Double.NaN;
+        }
+    }
+
+    @Override
+    public double add(@NotNull String currencyId, double a, double b) {
+        int scale = scaleOf(currencyId);
+        if (scale < 0) {
+            double sum = a + b;
+            return Math.abs(sum) <= maxStoredAmount() ? sum : Double.NaN;
+        }
+
+        try {
+            return Money.addExact(a, b, scale);
+        } catch (ArithmeticException e) {
+            return Double.NaN;
+        }
+    }
+
+    // ═══════════════════ PLAYERS ═══════════════════
+
+    @Override
+    public void savePlayer(@NotNull UUID uuid, @NotNull String username) throws SQLException {
+        write(session -> {
+            savePlayer(session, uuid, username);
+            return null;
+        });
+    }
+
+    @Override
+    @NotNull
+    public DatabaseManager.AccountProvision provisionAccount(@NotNull UUID uuid, @NotNull String username,
+                                                             @NotNull Collection<Currency> currencies) throws SQLException {
+        return write(session -> {
+            // Ids are interned before the transaction so a rollback cannot leave stale ids behind
+            Map<Integer, Currency> byKey = new HashMap<>();
+            for (Currency currency : currencies) {
+                byKey.put(currencyKey(session, currency.getId()), currency);
+            }
+            int starterType = typeKey(session, "STARTER");
+            int newCurrencyType = typeKey(session, "NEW_CURRENCY");
+
+            return inTransaction(session, tx -> {
+                byte[] uuidBytes = UuidUtil.toBytes(uuid);
+
+                PreparedStatement exists = tx.prepare("SELECT 1 FROM players WHERE uuid = ?");
+                exists.setBytes(1, uuidBytes);
+                boolean created;
+                try (ResultSet rs = exists.executeQuery()) {
+                    created = !rs.next();
+                }
+
+                savePlayer(tx, uuid, username);
+
+                Map<String, Double> balances = new HashMap<>();
+                PreparedStatement select = tx.prepare("SELECT currency_id, balance FROM balances WHERE uuid = ?");
+                select.setBytes(1, uuidBytes);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        Currency currency = byKey.get(rs.getInt("currency_id"));
+                        if (currency != null) {
+                            balances.put(currency.getId(), getAmount(rs, "balance", scaleOf(currency.getId())));
+                        }
+                    }
+                }
+
+                List<String> seeded = new ArrayList<>();
+                PreparedStatement insert = tx.prepare(statements().insertBalanceIfAbsent());
+                long now = System.currentTimeMillis();
+
+                for (Map.Entry<Integer, Currency> entry : byKey.entrySet()) {
+                    Currency currency = entry.getValue();
+                    if (balances.containsKey(currency.getId())) {
+                        continue;
+                    }
+
+                    double starter = normalize(currency.getId(), currency.getStarterBalance());
+                    insert.setBytes(1, uuidBytes);
+                    insert.setInt(2, entry.getKey());
+                    setAmount(insert, 3, starter, scaleOf(currency.getId()));
+                    insert.addBatch();
+
+                    addTransaction(tx, new TransactionLogAppender.TransactionRecord(
+                                    null, uuid, currency.getId(), starter, created ? "STARTER" : "NEW_CURRENCY", now),
+                            entry.getKey(), created ? starterType : newCurrencyType);
+
+                    balances.put(currency.getId(), starter);
+                    seeded.add(currency.getId());
+                }
+
+                if (!seeded.isEmpty()) {
+                    insert.executeBatch();
+                    tx.prepare(INSERT_TRANSACTION).executeBatch();
+                }
+
+                return new DatabaseManager.AccountProvision(created, balances, seeded);
+            });
+        });
+    }
+
+    protected void savePlayer(@NotNull SqlSession session, @NotNull UUID uuid, @NotNull String username) throws SQLException {
+        PreparedStatement ps = session.prepare(statements().upsertPlayer());
+        ps.setBytes(1, UuidUtil.toBytes(uuid));
+        ps.setString(2, username);
+        ps.setLong(3, System.currentTimeMillis());
+        ps.executeUpdate();
+    }
+
+    @Override
+    public boolean hasPlayer(@NotNull UUID uuid) throws SQLException {
+        String query = "SELECT 1 FROM players WHERE uuid = ?";
+
+        return read(session -> {
+            PreparedStatement ps = session.prepare(query);
+            ps.setBytes(1, UuidUtil.toBytes(uuid));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        });
+    }
+
+    @Override
+    public int countPlayers() throws SQLException {
+        String query = "SELECT COUNT(*) as count FROM players";
+
+        return read(session -> {
+            try (ResultSet rs = session.prepare(query).executeQuery()) {
+                return rs.next() ? rs.getInt("count") : 0;
+            }
+        });
+    }
+
+    @Override
+    @NotNull
+    public List<UUID> getPlayerUuids() throws SQLException {
+        String query = "SELECT uuid FROM players";
+
+        return read(session -> {
+            List<UUID> uuids = new ArrayList<>();
+            try (ResultSet rs = session.prepare(query).executeQuery()) {
+                while (rs.next()) {
+                    uuids.add(UuidUtil.fromBytes(rs.getBytes("uuid")));
+                }
+            }
+            return uuids;
+        });
+    }
+
+    @Override
+    @NotNull
+    public Map<UUID, String> getPlayerNames() throws SQLException {
+        String query = "SELECT uuid, username FROM players";
+
+        return read(session -> {
+            Map<UUID, String> names = new HashMap<>();
+            try (ResultSet rs = session.prepare(query).executeQuery()) {
+                while (rs.next()) {
+                    names.put(UuidUtil.fromBytes(rs.getBytes("uuid")), rs.getString("username"));
+                }
+            }
+            return names;
+        });
+    }
+
+    // ═══════════════════ BALANCES ═══════════════════
+
+    @Override
+    @Nullable
+    public Double loadBalance(@NotNull UUID uuid, @NotNull String currencyId) throws SQLException {
+        String query = "SELECT balance FROM balances WHERE uuid = ? AND currency_id = ?";
+
+        return read(session -> {
+            Integer currencyKey = lookupCurrencyKey(session, currencyId);
+            if (currencyKey == null) {
+                return null;
+            }
+
+            PreparedStatement ps = session.prepare(query);
+            ps.setBytes(1, UuidUtil.toBytes(uuid));
+            ps.setInt(2, currencyKey);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? getAmount(rs, "balance", scaleOf(currencyId)) : null;
+            }
+        });
+    }
+
+    @Override
+    @NotNull
+    public Map<UUID, Double> loadBalances(@NotNull Collection<UUID> uuids, @NotNull String currencyId) throws SQLException {
+        if (uuids.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        return read(session -> {
+            Map<UUID, Double> balances = new HashMap<>();
+            Integer currencyKey = lookupCurrencyKey(session, currencyId);
+            if (currencyKey == null) {
+                return balances;
+            }
+
+            int scale = scaleOf(currencyId);
+            List<UUID> chunk = new ArrayList<>(Math.min(uuids.size(), IN_CHUNK_SIZE));
+            for (UUID uuid : uuids) {
+                chunk.add(uuid);
+                if (chunk.size() == IN_CHUNK_SIZE) {
+                    loadBalances(session, chunk, currencyKey, scale, balances);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                loadBalances(session, chunk, currencyKey, scale, balances);
+            }
+            return balances;
+        });
+    }
+
+    private void loadBalances(@NotNull SqlSession session, @NotNull List<UUID> uuids, int currencyKey, int scale,
+                              @NotNull Map<UUID, Double> out) throws SQLException {
+        StringBuilder query = new StringBuilder("SELECT uuid, balance FROM balances WHERE currency_id = ? AND uuid IN (");
+        for (int i = 0; i < uuids.size(); i++) {
+            query.append(i == 0 ? "?" : ", ?");
+        }
+        query.append(')');
+
+        PreparedStatement ps = session.prepare(query.toString());
+        ps.setInt(1, currencyKey);
+        for (int i = 0; i < uuids.size(); i++) {
+            ps.setBytes(i + 2, UuidUtil.toBytes(uuids.get(i)));
+        }
+
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                out.put(UuidUtil.fromBytes(rs.getBytes("uuid")), getAmount(rs, "balance", scale));
+            }
+        }
+    }
+
+    @Override
+    @NotNull
+    public Map<String, Double> loadAccount(@NotNull UUID uuid) throws SQLException {
+        String query = """
+            SELECT c.name, b.balance
+            FROM balances b
+            JOIN currencies c ON c.id = b.currency_id
+            WHERE b.uuid = ?
+            """;
+
+        return read(session -> {
+            PreparedStatement ps = session.prepare(query);
+            ps.setBytes(1, UuidUtil.toBytes(uuid));
+
+            Map<String, Double> balances = new HashMap<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String currencyId = rs.getString("name");
+                    balances.put(currencyId, getAmount(rs, "balance", scaleOf(currencyId)));
+                }
+            }
+            return balances;
+        });
+    }
+
+    @Override
+    public boolean saveBalance(@NotNull UUID uuid, @NotNull String username, @NotNull String currencyId, double amount) throws SQLException {
+        return write(session -> {
+            int currencyKey = currencyKey(session, currencyId);
+            savePlayer(session, uuid, username);
+
+            PreparedStatement ps = session.prepare(statements().upsertBalance());
+            ps.setBytes(1, UuidUtil.toBytes(uuid));
+            ps.setInt(2, currencyKey);
+            setAmount(ps, 3, amount, scaleOf(currencyId));
+            return ps.executeUpdate() > 0;
+        });
+    }
+
+    @Override
+    public void saveBalances(@NotNull Map<WriteBehindLedger.BalanceKey, WriteBehindLedger.PendingWrite> batch) throws SQLException {
+        write(session -> {
+            Map<String, Integer> keys = new HashMap<>();
+            for (WriteBehindLedger.BalanceKey key : batch.keySet()) {
+                keys.put(key.currencyId(), currencyKey(session, key.currencyId()));
+            }
+
+            return inTransaction(session, tx -> {
+                PreparedStatement players = tx.prepare(statements().upsertPlayer());
+                PreparedStatement balances = tx.prepare(statements().upsertBalance());
+                long now = System.currentTimeMillis();
+                Set<UUID> seenPlayers = new HashSet<>();
+
+                for (Map.Entry<WriteBehindLedger.BalanceKey, WriteBehindLedger.PendingWrite> entry : batch.entrySet()) {
+                    UUID uuid = entry.getKey().uuid();
+
+                    // Players must exist before their balances (foreign key)
+                    if (seenPlayers.add(uuid)) {
+                        players.setBytes(1, UuidUtil.toBytes(uuid));
+                        players.setString(2, entry.getValue().username());
+                        players.setLong(3, now);
+                        players.addBatch();
+                    }
+
+                    balances.setBytes(1, UuidUtil.toBytes(uuid));
+                    balances.setInt(2, keys.get(entry.getKey().currencyId()));
+                    setAmount(balances, 3, entry.getValue().balance(), scaleOf(entry.getKey().currencyId()));
+                    balances.addBatch();
+                }
+
+                players.executeBatch();
+                return balances.executeBatch();
+            });
+        });
+    }
+
+    @Override
+    @Nullable
+    public Double applyDelta(@NotNull UUID uuid, @NotNull String username, @NotNull Currency currency, double delta) throws SQLException {
+        return write(session -> {
+            int currencyKey = currencyKey(session, currency.getId());
+
+            // A transaction keeps the seed and the update together and holds the row lock for the re-read
+            return inTransaction(session, tx -> applyDelta(tx, uuid, username, currency, currencyKey, delta));
+        });
+    }
+
+    @Override
+    @Nullable
+    public double[] transfer(@NotNull UUID fromUuid, @NotNull String fromUsername,
+                             @NotNull UUID toUuid, @NotNull String toUsername,
+                             @NotNull Currency currency, double amount,
+                             @Nullable TransactionLogAppender.TransactionRecord record) throws SQLException {
+        return write(session -> {
+            // Ids are interned before the transaction so a rollback cannot leave stale ids behind
+            int currencyKey = currencyKey(session, currency.getId());
+            int typeKey = record != null ? typeKey(session, record.type()) : 0;
+
+            return inTransaction(session, tx -> {
+                // Withdraw from sender (fails on insufficient funds)
+                savePlayer(tx, fromUuid, fromUsername);
+                Double fromBalance = applyDelta(tx, fromUuid, fromUsername, currency, currencyKey, -amount);
+                if (fromBalance == null) {
+                    return null;
+                }
+
+                // Deposit to receiver (fails if the maximum would be exceeded)
+                savePlayer(tx, toUuid, toUsername);
+                Double toBalance = applyDelta(tx, toUuid, toUsername, currency, currencyKey, amount);
+                if (toBalance == null) {
+                    return null;
+                }
+
+                if (record != null) {
+                    insertTransaction(tx, record, currencyKey, typeKey);
+                }
+
+                return new double[]{fromBalance, toBalance};
+            });
+        });
+    }
+
+    /**
+     * Runs the delta UPDATE, seeding a missing row first for deposits
+     *
+     * @return the new balance, or null if the row is missing or the limits would be exceeded
+     */
+    @Nullable
+    protected Double applyDelta(@NotNull SqlSession session, @NotNull UUID uuid, @NotNull String username,
+                                @NotNull Currency currency, int currencyKey, double delta) throws SQLException {
+        Double updated = updateDelta(session, uuid, currency, currencyKey, delta);
+        if (updated != null || delta < 0) {
+            return updated;
+        }
+
+        // No row updated: either the balance is missing or the limit was hit
+        if (!balanceExists(session, uuid, currencyKey)) {
+            savePlayer(session, uuid, username);
+
+            PreparedStatement ps = session.prepare(statements().insertBalanceIfAbsent());
+            ps.setBytes(1, UuidUtil.toBytes(uuid));
+            ps.setInt(2, currencyKey);
+            setAmount(ps, 3, currency.getStarterBalance(), scaleOf(currency.getId()));
+            ps.executeUpdate();
+
+            updated = updateDelta(session, uuid, currency, currencyKey, delta);
+        }
+
+        return updated;
+    }
+
+    @Nullable
+    private Double updateDelta(@NotNull SqlSession session, @NotNull UUID uuid, @NotNull Currency currency,
+                               int currencyKey, double delta) throws SQLException {
+        String query = """
+            UPDATE balances SET balance = balance + ?
+            WHERE uuid = ? AND currency_id = ? AND balance + ? BETWEEN ? AND ?
+            """;
+
+        int scale = scaleOf(currency.getId());
+        PreparedStatement ps = session.prepare(supportsUpdateReturning() ? query + "RETURNING balance" : query);
+
+        try {
+            setAmount(ps, 1, delta, scale);
+            ps.setBytes(2, UuidUtil.toBytes(uuid));
+            ps.setInt(3, currencyKey);
+            setAmount(ps, 4, delta, scale);
+            bindLimits(ps, 5, currency, scale);
+        } catch (ArithmeticException e) {
+            // Amount does not fit in minor units, so it can never be within the limits
+            return null;
+        }
+
+        if (supportsUpdateReturning()) {
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? getAmount(rs, "balance", scale) : null;
+            }
+        }
+
+        // The row stays locked by the caller's transaction until the new value is read
+        if (ps.executeUpdate() == 0) {
+            return null;
+        }
+
+        PreparedStatement select = session.prepare("SELECT balance FROM balances WHERE uuid = ? AND currency_id = ?");
+        select.setBytes(1, UuidUtil.toBytes(uuid));
+        select.setInt(2, currencyKey);
+
+        try (ResultSet rs = select.executeQuery()) {
+            return rs.next() ? getAmount(rs, "balance", scale) : null;
+        }
+    }
+
+    /**
+     * Binds the currency's minimum and maximum balance to two consecutive parameters
+     */
+    /**
+     * Binds the balance limits of a currency, clamped to what the balances column can hold
+     */
+    private void bindLimits(@NotNull PreparedStatement ps, int index, @NotNull Currency currency, int scale) throws SQLException {
+        if (scale < 0) {
+            double ceiling = maxStoredAmount();
+            double max = currency.getMaxBalance() != -1 ? Math.min(currency.getMaxBalance(), ceiling) : ceiling;
+            ps.setDouble(index, Math.max(currency.getMinBalance(), -ceiling));
+            ps.setDouble(index + 1, max);
+            return;
+        }
+
+        setAmount(ps, index, currency.getMinBalance(), scale);
+        if (currency.getMaxBalance() != -1) {
+            setAmount(ps, index + 1, currency.getMaxBalance(), scale);
+        } else {
+            ps.setLong(index + 1, Long.MAX_VALUE);
+        }
+    }
+
+    private boolean balanceExists(@NotNull SqlSession session, @NotNull UUID uuid, int currencyKey) throws SQLException {
+        String query = "SELECT 1 FROM balances WHERE uuid = ? AND currency_id = ?";
+
+        PreparedStatement ps = session.prepare(query);
+        ps.setBytes(1, UuidUtil.toBytes(uuid));
+        ps.setInt(2, currencyKey);
+
+        try (ResultSet rs = ps.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    @Override
+    @NotNull
+    public List<DatabaseManager.BalanceEntry> getTopBalances(@NotNull String currencyId, int limit, int offset) throws SQLException {
+        String query = """
+            SELECT p.uuid, p.username, b.balance
+            FROM balances b
+            JOIN players p ON b.uuid = p.uuid
+            WHERE b.currency_id = ?
+            ORDER BY b.balance DESC, b.uuid
+            LIMIT ? OFFSET ?
+            """;
+
+        return read(session -> {
+            List<DatabaseManager.BalanceEntry> entries = new ArrayList<>();
+
+            Integer currencyKey = lookupCurrencyKey(session, currencyId);
+            if (currencyKey == null) {
+                return entries;
+            }
+
+            PreparedStatement ps = session.prepare(query);
+            ps.setInt(1, currencyKey);
+            ps.setInt(2, limit);
+            ps.setInt(3, offset);
+
+            int scale = scaleOf(currencyId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    UUID uuid = UuidUtil.fromBytes(rs.getBytes("uuid"));
+                    String username = rs.getString("username");
+                    double balance = getAmount(rs, "balance", scale);
+
+                    entries.add(new DatabaseManager.BalanceEntry(uuid, username, balance));
+                }
+            }
+            return entries;
+        });
+    }
+
+    @Override
+    public void forEachBalance(@NotNull String currencyId, @NotNull Consumer<DatabaseManager.BalanceEntry> consumer) throws SQLException {
+        String query = """
+            SELECT p.uuid, p.username, b.balance
+            FROM balances b
+            JOIN players p ON b.uuid = p.uuid
+            WHERE b.currency_id = ?
+            """;
+
+        read(session -> {
+            Integer currencyKey = lookupCurrencyKey(session, currencyId);
+            if (currencyKey == null) {
+                return null;
+            }
+
+            PreparedStatement ps = session.prepare(query);
+            ps.setInt(1, currencyKey);
+            ps.setFetchSize(streamingFetchSize());
+
+            int scale = scaleOf(currencyId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(new DatabaseManager.BalanceEntry(
+                            UuidUtil.fromBytes(rs.getBytes("uuid")),
+                            rs.getString("username"),
+                            getAmount(rs, "balance", scale)));
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Fetch size for result sets that are streamed instead of read into memory
+     */
+    protected int streamingFetchSize() {
+        return 1000;
+    }
+
+    @Override
+    public int countBalances(@NotNull String currencyId) throws SQLException {
+        String query = "SELECT COUNT(*) AS count FROM balances WHERE currency_id = ?";
+
+        return read(session -> {
+            Integer currencyKey = lookupCurrencyKey(session, currencyId);
+            if (currencyKey == null) {
+                return 0;
+            }
+
+            PreparedStatement ps = session.prepare(query);
+            ps.setInt(1, currencyKey);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt("count") : 0;
+            }
+        });
+    }
+
+    @Override
+    public int countHigherBalances(@NotNull String currencyId, double balance, @NotNull UUID uuid) throws SQLException {
+        String query = """
+            SELECT COUNT(*) AS count FROM balances
+            WHERE currency_id = ? AND (balance > ? OR (balance = ? AND uuid < ?))
+            """;
+
+        return read(session -> {
+            Integer currencyKey = lookupCurrencyKey(session, currencyId);
+            if (currencyKey == null) {
+                return 0;
+            }
+
+            int scale = scaleOf(currencyId);
+            PreparedStatement ps = session.prepare(query);
+            ps.setInt(1, currencyKey);
+            setAmount(ps, 2, balance, scale);
+            setAmount(ps, 3, balance, scale);
+            ps.setBytes(4, UuidUtil.toBytes(uuid));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt("count") : 0;
+            }
+        });
+    }
+
+    // ═══════════════════ BULK ═══════════════════
+
+    @Override
+    @NotNull
+    public BulkOperation.Result applyBulk(@NotNull BulkOperation operation, int chunkSize, @NotNull Lock chunkLock,
+                                          @NotNull BulkOperation.Listener listener) throws SQLException {
+        int[] keys = write(session -> new int[]{
+                currencyKey(session, operation.currency().getId()),
+                typeKey(session, operation.transactionType())
+        });
+
+        int success = 0;
+        int processed = 0;
+        byte[] lower = new byte[0];
+
+        // Keyset paging over players.uuid; every chunk is its own write, so other writes run in between
+        while (true) {
+            byte[] from = lower;
+            BulkChunk chunk;
+
+            chunkLock.lock();
+            try {
+                chunk = write(session -> inTransaction(session,
+                        tx -> applyChunk(tx, operation, keys[0], keys[1], from, chunkSize)));
+
+                if (chunk.players() > 0) {
+                    listener.chunkDone(chunk.balances(), processed + chunk.players());
+                }
+            } finally {
+                chunkLock.unlock();
+            }
+
+            if (chunk.players() == 0) {
+                break;
+            }
+
+            success += chunk.success();
+            processed += chunk.players();
+            lower = chunk.upper();
+        }
+
+        return new BulkOperation.Result(success, processed - success);
+    }
+
+    @NotNull
+    private BulkChunk applyChunk(@NotNull SqlSession session, @NotNull BulkOperation operation,
+                                 int currencyKey, int typeKey, byte[] lower, int chunkSize) throws SQLException {
+        PreparedStatement bounds = session.prepare("SELECT uuid FROM players WHERE uuid > ? ORDER BY uuid LIMIT ?");
+        bounds.setBytes(1, lower);
+        bounds.setInt(2, chunkSize);
+
+        int players = 0;
+        byte[] upper = lower;
+        try (ResultSet rs = bounds.executeQuery()) {
+            while (rs.next()) {
+                upper = rs.getBytes("uuid");
+                players++;
+            }
+        }
+
+        if (players == 0) {
+            return new BulkChunk(0, 0, upper, List.of());
+        }
+
+        Currency currency = operation.currency();
+        int scale = scaleOf(currency.getId());
+        boolean limited = !operation.set();
+        int success;
+
+        try {
+            if (operation.set() || operation.seedsMissing()) {
+                PreparedStatement seed = session.prepare("""
+                    INSERT INTO balances (uuid, currency_id, balance)
+                    SELECT p.uuid, ?, ? FROM players p
+                    WHERE p.uuid > ? AND p.uuid <= ?
+                    AND NOT EXISTS (SELECT 1 FROM balances b WHERE b.uuid = p.uuid AND b.currency_id = ?)
+                    """);
+                seed.setInt(1, currencyKey);
+                setAmount(seed, 2, operation.set() ? operation.amount() : currency.getStarterBalance(), scale);
+                seed.setBytes(3, lower);
+                seed.setBytes(4, upper);
+                seed.setInt(5, currencyKey);
+                seed.executeUpdate();
+            }
+
+            // Audit rows first, selected with the same predicate as the update below
+            PreparedStatement audit = session.prepare("""
+                INSERT INTO transactions (from_uuid, to_uuid, currency_id, amount, type_id, timestamp)
+                SELECT NULL, uuid, currency_id, ?, ?, ? FROM balances""" + BULK_RANGE + (limited ? BULK_LIMITS : ""));
+            audit.setDouble(1, operation.loggedAmount());
+            audit.setInt(2, typeKey);
+            audit.setLong(3, System.currentTimeMillis());
+            audit.setInt(4, currencyKey);
+            audit.setBytes(5, lower);
+            audit.setBytes(6, upper);
+            if (limited) {
+                setAmount(audit, 7, operation.amount(), scale);
+                bindLimits(audit, 8, currency, scale);
+            }
+            audit.executeUpdate();
+
+            PreparedStatement update = session.prepare(limited
+                    ? "UPDATE balances SET balance = balance + ?" + BULK_RANGE + BULK_LIMITS
+                    : "UPDATE balances SET balance = ?" + BULK_RANGE);
+            setAmount(update, 1, operation.amount(), scale);
+            update.setInt(2, currencyKey);
+            update.setBytes(3, lower);
+            update.setBytes(4, upper);
+            if (limited) {
+                setAmount(update, 5, operation.amount(), scale);
+                bindLimits(update, 6, currency, scale);
+            }
+            success = update.executeUpdate();
+
+        } catch (ArithmeticException e) {
+            throw new SQLException("Amount does not fit the storage of " + currency.getId(), e);
+        }
+
+        PreparedStatement select = session.prepare("""
+            SELECT b.uuid, p.username, b.balance
+            FROM balances b
+            JOIN players p ON b.uuid = p.uuid
+            WHERE b.currency_id = ? AND b.uuid > ? AND b.uuid <= ?
+            """);
+        select.setInt(1, currencyKey);
+        select.setBytes(2, lower);
+        select.setBytes(3, upper);
+
+        List<DatabaseManager.BalanceEntry> balances = new ArrayList<>();
+        try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                UUID uuid = UuidUtil.fromBytes(rs.getBytes("uuid"));
+                balances.add(new DatabaseManager.BalanceEntry(uuid, rs.getString("username"), getAmount(rs, "balance", scale)));
+            }
+        }
+
+        return new BulkChunk(players, success, upper, balances);
+    }
+
+    private record BulkChunk(int players, int success, byte[] upper, @NotNull List<DatabaseManager.BalanceEntry> balances) {}
+
+    // ═══════════════════ TRANSACTIONS ═══════════════════
+
+    @Override
+    public void writeTransactions(@NotNull List<TransactionLogAppender.TransactionRecord> batch) throws SQLException {
+        write(session -> {
+            int[] currencies = new int[batch.size()];
+            int[] types = new int[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                currencies[i] = currencyKey(session, batch.get(i).currencyId());
+                types[i] = typeKey(session, batch.get(i).type());
+            }
+
+            return inTransaction(session, tx -> {
+                for (int i = 0; i < batch.size(); i++) {
+                    addTransaction(tx, batch.get(i), currencies[i], types[i]);
+                }
+                return tx.prepare(INSERT_TRANSACTION).executeBatch();
+            });
+        });
+    }
+
+    private void insertTransaction(@NotNull SqlSession session, @NotNull TransactionLogAppender.TransactionRecord record,
+                                   int currencyKey, int typeKey) throws SQLException {
+        PreparedStatement ps = session.prepare(INSERT_TRANSACTION);
+        bindTransaction(ps, record, currencyKey, typeKey);
+        ps.executeUpdate();
+    }
+
+    private void addTransaction(@NotNull SqlSession session, @NotNull TransactionLogAppender.TransactionRecord record,
+                                int currencyKey, int typeKey) throws SQLException {
+        PreparedStatement ps = session.prepare(INSERT_TRANSACTION);
+        bindTransaction(ps, record, currencyKey, typeKey);
+        ps.addBatch();
+    }
+
+    private static void bindTransaction(@NotNull PreparedStatement ps, @NotNull TransactionLogAppender.TransactionRecord record,
+                                        int currencyKey, int typeKey) throws SQLException {
+        ps.setBytes(1, UuidUtil.toBytesOrNull(record.fromUuid()));
+        ps.setBytes(2, UuidUtil.toBytes(record.toUuid()));
+        ps.setInt(3, currencyKey);
+        ps.setDouble(4, record.amount());
+        ps.setInt(5, typeKey);
+        ps.setLong(6, record.timestamp());
+    }
+}
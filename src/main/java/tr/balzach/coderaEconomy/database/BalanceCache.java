@@ -0,0 +1,242 @@
+package tr.balzach.coderaEconomy.database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded balance cache with segmented LRU eviction.
+ *
+ * New players enter the probation segment and are promoted to the protected
+ * segment on their second hit, so one-off lookups (baltop scans, offline
+ * players) cannot push the active player set out of the cache.
+ * The cache is bounded both by player count and by weight, where the weight
+ * of a player is the number of cached currency balances. Pinned players
+ * (online players) are never evicted and may push the cache past its bounds;
+ * players pinned before they joined are only pinned for a limited time.
+ */
+public class BalanceCache {
+
+    private static final double PROTECTED_RATIO = 0.8;
+    private static final long PERMANENT = Long.MAX_VALUE;
+
+    private final int maxPlayers;
+    private final int maxWeight;
+    private final int protectedCapacity;
+
+    // Access-ordered: iteration starts at the least recently used player
+    private final LinkedHashMap<UUID, Map<String, Double>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<UUID, Map<String, Double>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    // Pinned players and when their pin runs out
+    private final Map<UUID, Long> pinned = new HashMap<>();
+    private long nextPinExpiry = PERMANENT;
+    private int weight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BalanceCache(int maxPlayers, int maxWeight) {
+        this.maxPlayers = Math.max(1, maxPlayers);
+        this.maxWeight = Math.max(1, maxWeight);
+        this.protectedCapacity = Math.max(1, (int) (this.maxPlayers * PROTECTED_RATIO));
+    }
+
+    /**
+     * Gets a cached balance and records a hit or miss
+     */
+    @Nullable
+    public synchronized Double get(@NotNull UUID uuid, @NotNull String currencyId) {
+        Map<String, Double> balances = protectedSegment.get(uuid);
+
+        if (balances == null) {
+            balances = probation.get(uuid);
+            if (balances != null && balances.containsKey(currencyId)) {
+                promote(uuid, balances);
+            }
+        }
+
+        Double balance = balances != null ? balances.get(currencyId) : null;
+        if (balance != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return balance;
+    }
+
+    /**
+     * Gets a cached balance without recording a hit or miss or promoting the player
+     */
+    @Nullable
+    public synchronized Double peek(@NotNull UUID uuid, @NotNull String currencyId) {
+        Map<String, Double> balances = protectedSegment.get(uuid);
+        if (balances == null) {
+            balances = probation.get(uuid);
+        }
+        return balances != null ? balances.get(currencyId) : null;
+    }
+
+    public synchronized void put(@NotNull UUID uuid, @NotNull String currencyId, double balance) {
+        Map<String, Double> balances = protectedSegment.get(uuid);
+        if (balances == null) {
+            balances = probation.computeIfAbsent(uuid, k -> new HashMap<>());
+        }
+
+        if (balances.put(currencyId, balance) == null) {
+            weight++;
+        }
+
+        evictIfNeeded(uuid);
+    }
+
+    /**
+     * Keeps a player's balances from being evicted until the player is invalidated
+     */
+    public synchronized void pin(@NotNull UUID uuid) {
+        pinned.put(uuid, PERMANENT);
+    }
+
+    /**
+     * Keeps a player's balances from being evicted for a while; never shortens an existing pin
+     */
+    public synchronized void pin(@NotNull UUID uuid, long millis) {
+        long deadline = System.currentTimeMillis() + millis;
+        pinned.merge(uuid, deadline, Math::max);
+        nextPinExpiry = Math.min(nextPinExpiry, deadline);
+        purgeExpiredPins();
+    }
+
+    /**
+     * Drops a player's balances and pin
+     */
+    public synchronized void invalidate(@NotNull UUID uuid) {
+        pinned.remove(uuid);
+
+        Map<String, Double> removed = protectedSegment.remove(uuid);
+        if (removed == null) {
+            removed = probation.remove(uuid);
+        }
+        if (removed != null) {
+            weight -= removed.size();
+        }
+    }
+
+    /**
+     * Drops all balances; pins are kept, the pinned balances are loaded again on demand
+     */
+    public synchronized void invalidateAll() {
+        probation.clear();
+        protectedSegment.clear();
+        weight = 0;
+    }
+
+    private void promote(@NotNull UUID uuid, @NotNull Map<String, Double> balances) {
+        probation.remove(uuid);
+        protectedSegment.put(uuid, balances);
+
+        // Overflowing protected players get a second chance in probation
+        if (protectedSegment.size() > protectedCapacity) {
+            Iterator<Map.Entry<UUID, Map<String, Double>>> iterator = protectedSegment.entrySet().iterator();
+            Map.Entry<UUID, Map<String, Double>> eldest = iterator.next();
+            iterator.remove();
+            probation.put(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private void evictIfNeeded(@NotNull UUID justWritten) {
+        if (probation.size() + protectedSegment.size() > maxPlayers || weight > maxWeight) {
+            purgeExpiredPins();
+        }
+
+        while (probation.size() + protectedSegment.size() > maxPlayers || weight > maxWeight) {
+            Map.Entry<UUID, Map<String, Double>> victim = eldestUnpinned(probation);
+
+            // Prefer protected victims over the entry that is being written
+            if (victim == null || victim.getKey().equals(justWritten)) {
+                Map.Entry<UUID, Map<String, Double>> protectedVictim = eldestUnpinned(protectedSegment);
+                if (protectedVictim != null) {
+                    victim = protectedVictim;
+                } else if (probation.size() <= 1) {
+                    return;
+                }
+            }
+
+            if (victim == null) {
+                return;
+            }
+
+            LinkedHashMap<UUID, Map<String, Double>> segment = probation.containsKey(victim.getKey()) ? probation : protectedSegment;
+            segment.remove(victim.getKey());
+            weight -= victim.getValue().size();
+            evictions.increment();
+        }
+    }
+
+    @Nullable
+    private Map.Entry<UUID, Map<String, Double>> eldestUnpinned(@NotNull LinkedHashMap<UUID, Map<String, Double>> segment) {
+        for (Map.Entry<UUID, Map<String, Double>> entry : segment.entrySet()) {
+            if (!pinned.containsKey(entry.getKey())) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Drops the pins that ran out; only walks the pins once the earliest one is due
+     */
+    private void purgeExpiredPins() {
+        long now = System.currentTimeMillis();
+        if (now < nextPinExpiry) {
+            return;
+        }
+
+        long next = PERMANENT;
+        Iterator<Long> iterator = pinned.values().iterator();
+        while (iterator.hasNext()) {
+            long deadline = iterator.next();
+            if (deadline <= now) {
+                iterator.remove();
+            } else if (deadline != PERMANENT) {
+                next = Math.min(next, deadline);
+            }
+        }
+        nextPinExpiry = next;
+    }
+
+    @NotNull
+    public synchronized Stats getStats() {
+        purgeExpiredPins();
+        return new Stats(
+                hits.sum(),
+                misses.sum(),
+                evictions.sum(),
+                probation.size() + protectedSegment.size(),
+                pinned.size(),
+                weight,
+                maxPlayers,
+                maxWeight
+        );
+    }
+
+    public record Stats(long hits, long misses, long evictions, int players, int pinned, int weight, int maxPlayers, int maxWeight) {
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("players=%d/%d, pinned=%d, weight=%d/%d, hits=%d, misses=%d, evictions=%d, hit-rate=%.1f%%",
+                    players, maxPlayers, pinned, weight, maxWeight, hits, misses, evictions, hitRate() * 100);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package tr.balzach.coderaEconomy.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * Notified after a balance has changed, on the thread that changed it
+ */
+@FunctionalInterface
+public interface BalanceListener {
+
+    void balanceChanged(@NotNull UUID uuid, @NotNull String currencyId, double balance);
+}
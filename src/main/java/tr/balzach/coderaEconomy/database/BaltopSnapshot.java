@@ -0,0 +1,38 @@
+package tr.balzach.coderaEconomy.database;
+
+import org.jetbrains.annotations.NotNull;
+import tr.balzach.coderaEconomy.database.DatabaseManager.BalanceEntry;
+
+import java.util.List;
+
+/**
+ * Immutable top-N leaderboard of one currency, rebuilt every baltop.update-interval
+ *
+ * @param entries   the richest players, highest balance first
+ * @param size      number of ranked players when the snapshot was taken
+ * @param createdAt when the snapshot was taken (epoch millis)
+ */
+public record BaltopSnapshot(@NotNull List<BalanceEntry> entries, int size, long createdAt) {
+
+    public BaltopSnapshot {
+        entries = List.copyOf(entries);
+    }
+
+    /**
+     * Whether the requested page lies within the snapshot
+     */
+    public boolean covers(int limit, int offset) {
+        return offset >= 0 && ((long) offset + limit <= entries.size() || entries.size() >= size);
+    }
+
+    @NotNull
+    public List<BalanceEntry> page(int limit, int offset) {
+        int from = Math.min(offset, entries.size());
+        int to = (int) Math.min((long) from + Math.max(0, limit), entries.size());
+        return entries.subList(from, to);
+    }
+
+    public long getAgeMillis() {
+        return System.currentTimeMillis() - createdAt;
+    }
+}
@@ -0,0 +1,54 @@
+package tr.balzach.coderaEconomy.database;
+
+import org.jetbrains.annotations.NotNull;
+import tr.balzach.coderaEconomy.currency.Currency;
+
+import java.util.List;
+
+/**
+ * A balance change applied to every player at once (/eco give|set|remove|reset all)
+ *
+ * @param set          whether balances are overwritten with the amount instead of adding it
+ * @param amount       new balance when setting, otherwise the (possibly negative) delta
+ * @param loggedAmount amount written to the transaction log for every affected player
+ */
+public record BulkOperation(@NotNull Currency currency, boolean set, double amount,
+                            double loggedAmount, @NotNull String transactionType) {
+
+    @NotNull
+    public static BulkOperation give(@NotNull Currency currency, double amount) {
+        return new BulkOperation(currency, false, amount, amount, "ADMIN_GIVE_ALL");
+    }
+
+    @NotNull
+    public static BulkOperation remove(@NotNull Currency currency, double amount) {
+        return new BulkOperation(currency, false, -amount, -amount, "ADMIN_REMOVE_ALL");
+    }
+
+    @NotNull
+    public static BulkOperation set(@NotNull Currency currency, double amount) {
+        return new BulkOperation(currency, true, amount, amount, "ADMIN_SET_ALL");
+    }
+
+    @NotNull
+    public static BulkOperation reset(@NotNull Currency currency) {
+        return new BulkOperation(currency, true, currency.getStarterBalance(), 0, "ADMIN_RESET_ALL");
+    }
+
+    /**
+     * Missing balances are created with the starter balance before a deposit, like single deposits
+     */
+    public boolean seedsMissing() {
+        return !set && amount > 0;
+    }
+
+    public record Result(int success, int failed) {}
+
+    /**
+     * Receives the balances of every chunk once it has been committed
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void chunkDone(@NotNull List<DatabaseManager.BalanceEntry> balances, int processed);
+    }
+}
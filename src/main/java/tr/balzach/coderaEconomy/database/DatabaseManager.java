@@ -1,21 +1,28 @@
 package tr.balzach.coderaEconomy.database;
 
-import com.zaxxer.hikari.HikariConfig;
-import com.zaxxer.hikari.HikariDataSource;
+import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 import tr.balzach.coderaEconomy.CoderaEconomy;
 import tr.balzach.coderaEconomy.currency.Currency;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
-import java.sql.*;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 /**
@@ -24,145 +31,184 @@ import java.util.logging.Level;
  */
 public class DatabaseManager {
 
+    // Players per transaction in bulk operations
+    private static final int BULK_CHUNK_SIZE = 1000;
+
+    // Balances added to the leaderboard index per lock while it loads
+    private static final int LEADERBOARD_LOAD_CHUNK_SIZE = 1000;
+
+    // Player names suggested per tab completion
+    private static final int NAME_COMPLETION_LIMIT = 50;
+
+    // How long balances prefetched at pre-login stay pinned if the player never joins
+    private static final long UNJOINED_PIN_MILLIS = 60_000;
+
     private final CoderaEconomy plugin;
-    private HikariDataSource dataSource;
-    private final File databaseFile;
 
-    // Improved cache with better memory management
-    private final Map<UUID, Map<String, Double>> cache = new ConcurrentHashMap<>();
-    private static final int MAX_CACHE_SIZE = 1000;
+    // SQLite or MySQL/MariaDB, chosen by database.type
+    private final StorageBackend storage;
+    private boolean open;
+
+    // Bounded SLRU cache, sized from config
+    private final BalanceCache cache;
+
+    // Joins whose balances were all cached before the player entered the world
+    private final LongAdder warmJoins = new LongAdder();
+    private final LongAdder coldJoins = new LongAdder();
+
+    // Write-behind mode: ledger is authoritative, database is updated in batches
+    private final boolean writeBehind;
+    private final WriteBehindLedger ledger = new WriteBehindLedger();
+    private final Lock flushLock = new ReentrantLock();
+
+    // Per-currency leaderboard kept in memory once loaded
+    private final LeaderboardIndex leaderboard = new LeaderboardIndex();
+
+    // Names of all players with an account, for lookups and tab completion
+    private final UsernameIndex usernames = new UsernameIndex();
+
+    // Top-N per currency, replaced as a whole every baltop.update-interval
+    private final AtomicReference<Map<String, BaltopSnapshot>> baltopSnapshots = new AtomicReference<>(Map.of());
+
+    // Notified after every balance change
+    private final List<BalanceListener> balanceListeners = new CopyOnWriteArrayList<>();
+
+    // Keeps JDBC work of commands, joins, placeholders and the API off the main thread and the common pool
+    private final StorageExecutor storageExecutor;
+
+    // Database calls made on the server thread, for /eco debug mainthread
+    private final MainThreadMonitor mainThreadMonitor = new MainThreadMonitor();
+
+    // Group-committed transaction log (null when synchronous logging is configured)
+    private TransactionLogAppender transactionLog;
 
     public DatabaseManager(@NotNull CoderaEconomy plugin) {
         this.plugin = plugin;
-        this.databaseFile = new File(plugin.getDataFolder(), "economy.db");
+        this.writeBehind = plugin.getConfigManager().isWriteBehindEnabled();
+        this.cache = new BalanceCache(
+                plugin.getConfigManager().getCacheMaxPlayers(),
+                plugin.getConfigManager().getCacheMaxEntries()
+        );
+        StorageBackend backend = switch (plugin.getConfigManager().getStorageType()) {
+            case MYSQL, MARIADB -> new MySqlStorage(plugin, plugin.getConfigManager().getStorageType());
+            case SQLITE -> new SqliteStorage(plugin);
+        };
+        this.storage = new MonitoredStorage(backend, mainThreadMonitor, plugin.getServer());
+
+        this.storageExecutor = new StorageExecutor(
+                plugin.getLogger(),
+                plugin.getConfigManager().getStorageExecutorType(),
+                plugin.getConfigManager().getStorageThreads(),
+                plugin.getConfigManager().getStorageQueueCapacity()
+        );
+        plugin.getLogger().info("Storage executor: " + storageExecutor.getType()
+                + " (" + plugin.getConfigManager().getStorageThreads() + " concurrent tasks)");
 
         initialize();
+        startUsernameLoad();
+        startLeaderboardLoad();
+        startBaltopTask();
         startBackupTask();
+        startFlushTask();
     }
 
     private void initialize() {
         try {
-            if (!plugin.getDataFolder().exists()) {
-                if (!plugin.getDataFolder().mkdirs()) {
-                    throw new IOException("Failed to create plugin folder");
-                }
+            storage.open();
+            open = true;
+            plugin.getLogger().info("Storage: " + storage.getName());
+
+            if (plugin.getConfigManager().isTransactionLogAsync()) {
+                this.transactionLog = new TransactionLogAppender(
+                        plugin.getLogger(),
+                        storage::writeTransactions,
+                        plugin.getConfigManager().getTransactionLogQueueCapacity(),
+                        plugin.getConfigManager().getTransactionLogBatchSize(),
+                        plugin.getConfigManager().getTransactionLogFlushInterval()
+                );
             }
 
-            HikariConfig hikariConfig = new HikariConfig();
-            hikariConfig.setJdbcUrl("jdbc:sqlite:" + databaseFile.getPath());
-
-            // OPTIMIZED: Better pool settings
-            hikariConfig.setMaximumPoolSize(10);
-            hikariConfig.setMinimumIdle(2);
-            hikariConfig.setConnectionTimeout(30000);
-            hikariConfig.setIdleTimeout(600000);
-            hikariConfig.setMaxLifetime(1800000);
-            hikariConfig.setLeakDetectionThreshold(60000);
-
-            // OPTIMIZED: SQLite performance settings
-            hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
-            hikariConfig.addDataSourceProperty("prepStmtCacheSize", "250");
-            hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to initialize database", e);
+        }
+    }
 
-            this.dataSource = new HikariDataSource(hikariConfig);
+    @NotNull
+    public StorageBackend getStorage() {
+        return storage;
+    }
 
-            // IMPORTANT: WAL mode setup
-            // economy.db-wal and economy.db-shm files are NORMAL for WAL mode
-            // They improve performance and crash recovery
-            try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
-                stmt.execute("PRAGMA foreign_keys = ON");
-                stmt.execute("PRAGMA journal_mode = WAL"); // WAL creates .db-wal and .db-shm files
-                stmt.execute("PRAGMA synchronous = NORMAL");
-                stmt.execute("PRAGMA temp_store = MEMORY");
-                stmt.execute("PRAGMA mmap_size = 30000000000");
-                stmt.execute("PRAGMA page_size = 4096");
-                stmt.execute("PRAGMA cache_size = -64000"); // 64MB cache
-            }
+    /**
+     * Executor for work that blocks on the database; never run such work on the main thread
+     */
+    @NotNull
+    public Executor getStorageExecutor() {
+        return storageExecutor;
+    }
 
-            createTables();
-            plugin.getLogger().info("Database initialized with WAL mode (economy.db-wal and .db-shm are normal)");
+    /**
+     * Runs a task on the storage executor
+     *
+     * @return the task's future, failed with a {@link RejectedExecutionException} if the executor is full
+     */
+    @NotNull
+    public CompletableFuture<Void> runAsync(@NotNull Runnable task) {
+        try {
+            return CompletableFuture.runAsync(task, storageExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
-        } catch (SQLException | IOException e) {
-            plugin.getLogger().log(Level.SEVERE, "Failed to initialize database", e);
+    /**
+     * Runs a long task, such as a bulk operation, on the storage executor without taking a permit
+     *
+     * @return the task's future, failed with a {@link RejectedExecutionException} if the executor is shut down
+     */
+    @NotNull
+    public CompletableFuture<Void> runLongAsync(@NotNull Runnable task) {
+        try {
+            return CompletableFuture.runAsync(task, storageExecutor::executeLongRunning);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
         }
     }
 
-    private Connection getConnection() throws SQLException {
-        return dataSource.getConnection();
-    }
-
-    private void createTables() throws SQLException {
-        String createPlayersTable = """
-            CREATE TABLE IF NOT EXISTS players (
-                uuid TEXT PRIMARY KEY NOT NULL,
-                username TEXT NOT NULL,
-                last_updated INTEGER NOT NULL,
-                UNIQUE(uuid)
-            )
-            """;
-
-        String createBalancesTable = """
-            CREATE TABLE IF NOT EXISTS balances (
-                uuid TEXT NOT NULL,
-                currency TEXT NOT NULL,
-                balance REAL NOT NULL DEFAULT 0,
-                PRIMARY KEY(uuid, currency),
-                FOREIGN KEY(uuid) REFERENCES players(uuid) ON DELETE CASCADE
-            )
-            """;
-
-        String createTransactionsTable = """
-            CREATE TABLE IF NOT EXISTS transactions (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                from_uuid TEXT,
-                to_uuid TEXT NOT NULL,
-                currency TEXT NOT NULL,
-                amount REAL NOT NULL,
-                type TEXT NOT NULL,
-                timestamp INTEGER NOT NULL,
-                FOREIGN KEY(from_uuid) REFERENCES players(uuid),
-                FOREIGN KEY(to_uuid) REFERENCES players(uuid)
-            )
-            """;
-
-        String createIndexes = """
-            CREATE INDEX IF NOT EXISTS idx_balances_currency ON balances(currency, balance DESC);
-            CREATE INDEX IF NOT EXISTS idx_transactions_timestamp ON transactions(timestamp DESC);
-            CREATE INDEX IF NOT EXISTS idx_players_username ON players(username);
-            """;
-
-        try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
-            stmt.execute(createPlayersTable);
-            stmt.execute(createBalancesTable);
-            stmt.execute(createTransactionsTable);
-            stmt.execute(createIndexes);
+    /**
+     * Runs a task on the storage executor
+     *
+     * @return the task's future, failed with a {@link RejectedExecutionException} if the executor is full
+     */
+    @NotNull
+    public <T> CompletableFuture<T> supplyAsync(@NotNull Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, storageExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
         }
     }
 
     public double getBalance(@NotNull UUID uuid, @NotNull String currencyId) {
-        // Check cache first
-        if (cache.containsKey(uuid) && cache.get(uuid).containsKey(currencyId)) {
-            return cache.get(uuid).get(currencyId);
+        // Unflushed balances always win over cache and database
+        if (writeBehind) {
+            Double pending = ledger.getBalance(uuid, currencyId);
+            if (pending != null) {
+                return pending;
+            }
         }
 
-        String query = "SELECT balance FROM balances WHERE uuid = ? AND currency = ?";
-
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(query)) {
-            ps.setString(1, uuid.toString());
-            ps.setString(2, currencyId);
-
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    double balance = rs.getDouble("balance");
+        // Check cache first
+        Double cached = cache.get(uuid, currencyId);
+        if (cached != null) {
+            return cached;
+        }
 
-                    // OPTIMIZED: Cache with size limit
-                    if (cache.size() < MAX_CACHE_SIZE) {
-                        cache.computeIfAbsent(uuid, k -> new ConcurrentHashMap<>()).put(currencyId, balance);
-                    }
+        try {
+            Double balance = storage.loadBalance(uuid, currencyId);
 
-                    return balance;
-                }
+            if (balance != null) {
+                cache.put(uuid, currencyId, balance);
+                return balance;
             }
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to get balance for " + uuid, e);
@@ -177,31 +223,128 @@ public class DatabaseManager {
 
     @NotNull
     public CompletableFuture<Double> getBalanceAsync(@NotNull UUID uuid, @NotNull String currencyId) {
-        return CompletableFuture.supplyAsync(() -> getBalance(uuid, currencyId));
+        return supplyAsync(() -> getBalance(uuid, currencyId));
+    }
+
+    /**
+     * Gets the balances of many players in one currency. Cached balances are used as is,
+     * the rest is loaded with one query per 500 players.
+     *
+     * @return the balance of every requested player in request order, -1 for players without one
+     */
+    @NotNull
+    public Map<UUID, Double> getBalances(@NotNull Collection<UUID> uuids, @NotNull String currencyId) {
+        Map<UUID, Double> balances = new LinkedHashMap<>(Math.max(16, uuids.size() * 2));
+        List<UUID> missing = new ArrayList<>();
+
+        for (UUID uuid : uuids) {
+            Double balance = writeBehind ? ledger.getBalance(uuid, currencyId) : null;
+            if (balance == null) {
+                balance = cache.get(uuid, currencyId);
+            }
+
+            if (balance != null) {
+                balances.put(uuid, balance);
+            } else if (!balances.containsKey(uuid)) {
+                balances.put(uuid, -1.0);
+                missing.add(uuid);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            try {
+                for (Map.Entry<UUID, Double> entry : storage.loadBalances(missing, currencyId).entrySet()) {
+                    cache.put(entry.getKey(), currencyId, entry.getValue());
+                    balances.put(entry.getKey(), entry.getValue());
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to get balances of " + missing.size() + " players", e);
+            }
+        }
+
+        return balances;
+    }
+
+    @NotNull
+    public CompletableFuture<Map<UUID, Double>> getBalancesAsync(@NotNull Collection<UUID> uuids, @NotNull String currencyId) {
+        List<UUID> copy = List.copyOf(uuids);
+        return supplyAsync(() -> getBalances(copy, currencyId));
+    }
+
+    /**
+     * Gets every balance of a player at once; loaded with one query unless all are cached
+     */
+    @NotNull
+    public AccountSnapshot getAccountSnapshot(@NotNull UUID uuid) {
+        Collection<Currency> currencies = plugin.getCurrencyManager().getCurrencies();
+        Map<String, Double> balances = new LinkedHashMap<>(currencies.size() * 2);
+        boolean complete = true;
+
+        for (Currency currency : currencies) {
+            Double balance = writeBehind ? ledger.getBalance(uuid, currency.getId()) : null;
+            if (balance == null) {
+                balance = cache.get(uuid, currency.getId());
+            }
+
+            if (balance != null) {
+                balances.put(currency.getId(), balance);
+            } else {
+                complete = false;
+            }
+        }
+
+        if (!complete) {
+            try {
+                Map<String, Double> stored = storage.loadAccount(uuid);
+                for (Currency currency : currencies) {
+                    Double balance = stored.get(currency.getId());
+                    if (balance != null && !balances.containsKey(currency.getId())) {
+                        cache.put(uuid, currency.getId(), balance);
+                        balances.put(currency.getId(), balance);
+                    }
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to get account of " + uuid, e);
+            }
+        }
+
+        return new AccountSnapshot(uuid, Collections.unmodifiableMap(balances), System.currentTimeMillis());
+    }
+
+    @NotNull
+    public CompletableFuture<AccountSnapshot> getAccountSnapshotAsync(@NotNull UUID uuid) {
+        return supplyAsync(() -> getAccountSnapshot(uuid));
     }
 
     public boolean setBalance(@NotNull UUID uuid, @NotNull String username, @NotNull String currencyId, double amount) {
-        if (!ensurePlayerExists(uuid, username)) {
+        double stored = storage.normalize(currencyId, amount);
+        if (Double.isNaN(stored)) {
+            plugin.getLogger().warning("Balance out of range for " + currencyId + ": " + amount);
             return false;
         }
 
-        String query = """
-            INSERT INTO balances (uuid, currency, balance)
-            VALUES (?, ?, ?)
-            ON CONFLICT(uuid, currency) DO UPDATE SET balance = excluded.balance
-            """;
-
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(query)) {
-            ps.setString(1, uuid.toString());
-            ps.setString(2, currencyId);
-            ps.setDouble(3, amount);
+        if (writeBehind) {
+            // The real prior balance becomes the pending write's base, so a bulk operation that committed
+            // before this set is not replayed over it
+            double current;
+            try {
+                Double loaded = loadForLedger(uuid, currencyId);
+                current = loaded != null ? loaded : Double.NaN;
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to get balance for " + uuid, e);
+                return false;
+            }
 
-            int result = ps.executeUpdate();
+            if (!ensurePlayerRow(uuid, username)) {
+                return false;
+            }
+            updateLedger(uuid, username, currencyId, current, balance -> stored);
+            return true;
+        }
 
-            if (result > 0) {
-                // Update cache
-                cache.computeIfAbsent(uuid, k -> new ConcurrentHashMap<>()).put(currencyId, amount);
+        try {
+            if (storage.saveBalance(uuid, username, currencyId, stored)) {
+                balanceChanged(uuid, username, currencyId, stored);
                 return true;
             }
 
@@ -218,27 +361,24 @@ public class DatabaseManager {
 
     @NotNull
     public CompletableFuture<Boolean> setBalanceAsync(@NotNull UUID uuid, @NotNull String username, @NotNull String currencyId, double amount) {
-        return CompletableFuture.supplyAsync(() -> setBalance(uuid, username, currencyId, amount));
+        return supplyAsync(() -> setBalance(uuid, username, currencyId, amount));
+    }
+
+    /**
+     * Makes sure a player has a players row before the ledger takes a balance for it.
+     * The ledger only writes the row at the next flush, but the audit rows of the
+     * change reference it and may be written before that.
+     */
+    private boolean ensurePlayerRow(@NotNull UUID uuid, @NotNull String username) {
+        // The index only holds players that are stored
+        return usernames.contains(uuid) || ensurePlayerExists(uuid, username);
     }
 
     private boolean ensurePlayerExists(@NotNull UUID uuid, @NotNull String username) {
-        String query = """
-            INSERT INTO players (uuid, username, last_updated)
-            VALUES (?, ?, ?)
-            ON CONFLICT(uuid) DO UPDATE SET
-                username = excluded.username,
-                last_updated = excluded.last_updated
-            """;
-
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(query)) {
-            ps.setString(1, uuid.toString());
-            ps.setString(2, username);
-            ps.setLong(3, System.currentTimeMillis());
-
-            ps.executeUpdate();
+        try {
+            storage.savePlayer(uuid, username);
+            usernames.put(uuid, username);
             return true;
-
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to ensure player exists: " + uuid, e);
             return false;
@@ -246,28 +386,170 @@ public class DatabaseManager {
     }
 
     public boolean addBalance(@NotNull UUID uuid, @NotNull String username, @NotNull String currencyId, double amount) {
-        double current = getBalance(uuid, currencyId);
+        return !Double.isNaN(applyDelta(uuid, username, currencyId, amount));
+    }
+
+    public boolean removeBalance(@NotNull UUID uuid, @NotNull String username, @NotNull String currencyId, double amount) {
+        return !Double.isNaN(applyDelta(uuid, username, currencyId, -amount));
+    }
+
+    /**
+     * Atomically adds a (possibly negative) delta to a balance in a single statement.
+     * The currency's min/max limits are checked by the database, so concurrent
+     * deposits and withdrawals never overwrite each other.
+     * Missing balances are seeded with the starter balance for deposits only.
+     *
+     * @return the new balance, or NaN if the account is missing, the limits would be exceeded or the database failed
+     */
+    public double applyDelta(@NotNull UUID uuid, @NotNull String username, @NotNull String currencyId, double delta) {
+        BalanceChange change = changeBalance(uuid, username, currencyId, delta);
+        return change.status() == BalanceChange.Status.SUCCESS ? change.balance() : Double.NaN;
+    }
 
+    /**
+     * Same as {@link #applyDelta}, but tells a rejected change apart from a storage error
+     */
+    @NotNull
+    public BalanceChange changeBalance(@NotNull UUID uuid, @NotNull String username, @NotNull String currencyId, double delta) {
         Currency currency = plugin.getCurrencyManager().getCurrency(currencyId);
         if (currency == null) {
             plugin.getLogger().warning("Currency not found: " + currencyId);
-            return false;
+            return BalanceChange.error();
+        }
+
+        if (writeBehind) {
+            double current;
+            try {
+                Double loaded = loadForLedger(uuid, currencyId);
+                if (loaded == null) {
+                    if (delta < 0) {
+                        return BalanceChange.rejected(Double.NaN);
+                    }
+                    loaded = currency.getStarterBalance();
+                }
+                current = loaded;
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to get balance for " + uuid, e);
+                return BalanceChange.error();
+            }
+
+            if (!ensurePlayerRow(uuid, username)) {
+                return BalanceChange.error();
+            }
+            double updated = updateLedger(uuid, username, currencyId, current, balance -> {
+                double result = storage.add(currencyId, balance, delta);
+                return !Double.isNaN(result) && currency.isValidBalance(result) ? result : Double.NaN;
+            });
+            return Double.isNaN(updated)
+                    ? BalanceChange.rejected(peekBalance(uuid, currencyId))
+                    : BalanceChange.success(updated);
+        }
+
+        try {
+            Double updated = storage.applyDelta(uuid, username, currency, delta);
+            if (updated == null) {
+                return BalanceChange.rejected(peekBalance(uuid, currencyId));
+            }
+
+            balanceChanged(uuid, username, currencyId, updated);
+            return BalanceChange.success(updated);
+
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to update balance for " + uuid, e);
+            return BalanceChange.error();
+        }
+    }
+
+    /**
+     * Reads a balance like {@link #getBalance(UUID, String)}, but lets a database error through
+     *
+     * @return the balance, or null if the player has none
+     */
+    @org.jetbrains.annotations.Nullable
+    private Double loadForLedger(@NotNull UUID uuid, @NotNull String currencyId) throws SQLException {
+        Double pending = ledger.getBalance(uuid, currencyId);
+        if (pending != null) {
+            return pending;
+        }
+
+        Double cached = cache.get(uuid, currencyId);
+        if (cached != null) {
+            return cached;
+        }
+
+        Double balance = storage.loadBalance(uuid, currencyId);
+        if (balance != null) {
+            cache.put(uuid, currencyId, balance);
         }
+        return balance;
+    }
 
-        if (current == -1) {
-            current = currency.getStarterBalance();
+    /**
+     * Balance held in memory, without going to the database
+     *
+     * @return the balance, or NaN if it is not in memory
+     */
+    private double peekBalance(@NotNull UUID uuid, @NotNull String currencyId) {
+        if (writeBehind) {
+            Double pending = ledger.getBalance(uuid, currencyId);
+            if (pending != null) {
+                return pending;
+            }
         }
 
-        return setBalance(uuid, username, currencyId, current + amount);
+        Double cached = cache.peek(uuid, currencyId);
+        return cached != null ? cached : Double.NaN;
     }
 
-    public boolean removeBalance(@NotNull UUID uuid, @NotNull String username, @NotNull String currencyId, double amount) {
-        double current = getBalance(uuid, currencyId);
-        if (current == -1 || current < amount) {
-            return false;
+    /**
+     * Applies an operation to a balance in the write-behind ledger.
+     * The cache is updated under the entry lock so it never lags behind the ledger; the
+     * leaderboard and listeners are told afterwards, since listeners may use balances themselves.
+     *
+     * @param loaded balance read by the caller, used when neither ledger nor cache has one
+     * @return the new balance, or NaN if the operation rejected the change
+     */
+    private double updateLedger(@NotNull UUID uuid, @NotNull String username, @NotNull String currencyId,
+                                double loaded, @NotNull DoubleUnaryOperator operation) {
+        double[] result = new double[1];
+
+        ledger.compute(uuid, currencyId, (key, pending) -> {
+            double current;
+            if (pending != null) {
+                current = pending.balance();
+            } else {
+                Double cached = cache.peek(uuid, currencyId);
+                current = cached != null ? cached : loaded;
+            }
+
+            double updated = operation.applyAsDouble(current);
+            result[0] = updated;
+
+            if (Double.isNaN(updated)) {
+                return pending;
+            }
+
+            cache.put(uuid, currencyId, updated);
+            return new WriteBehindLedger.PendingWrite(username, updated, pending != null ? pending.base() : current);
+        });
+
+        if (!Double.isNaN(result[0])) {
+            publishBalance(uuid, username, currencyId, latestBalance(uuid, currencyId, result[0]));
         }
+        return result[0];
+    }
 
-        return setBalance(uuid, username, currencyId, current - amount);
+    /**
+     * Balance to publish after a ledger update. A concurrent update of the same balance may
+     * have been published first, so the newest value is told rather than this update's one.
+     */
+    private double latestBalance(@NotNull UUID uuid, @NotNull String currencyId, double updated) {
+        Double pending = ledger.getBalance(uuid, currencyId);
+        if (pending != null) {
+            return pending;
+        }
+        Double cached = cache.peek(uuid, currencyId);
+        return cached != null ? cached : updated;
     }
 
     /**
@@ -277,134 +559,196 @@ public class DatabaseManager {
                                    @NotNull UUID toUuid, @NotNull String toUsername,
                                    @NotNull String currencyId, double amount,
                                    @NotNull String transactionType) {
-        Connection conn = null;
-        try {
-            conn = getConnection();
-            conn.setAutoCommit(false);
-
-            // Withdraw from sender
-            double fromBalance = getBalance(fromUuid, currencyId);
-            if (fromBalance < amount) {
-                conn.rollback();
-                return false;
-            }
+        if (writeBehind) {
+            return transferInLedger(fromUuid, fromUsername, toUuid, toUsername, currencyId, amount, transactionType);
+        }
 
-            if (!setBalanceInTransaction(conn, fromUuid, fromUsername, currencyId, fromBalance - amount)) {
-                conn.rollback();
-                return false;
-            }
+        Currency currency = plugin.getCurrencyManager().getCurrency(currencyId);
+        if (currency == null) {
+            return false;
+        }
 
-            // Deposit to receiver
-            double toBalance = getBalance(toUuid, currencyId);
-            Currency currency = plugin.getCurrencyManager().getCurrency(currencyId);
-            if (currency == null) {
-                conn.rollback();
-                return false;
-            }
+        // Record transaction in the same database transaction (the async log appends it after commit)
+        TransactionLogAppender.TransactionRecord record = new TransactionLogAppender.TransactionRecord(
+                fromUuid, toUuid, currencyId, amount, transactionType, System.currentTimeMillis());
 
-            if (toBalance == -1) {
-                toBalance = currency.getStarterBalance();
-            }
+        try {
+            double[] balances = storage.transfer(fromUuid, fromUsername, toUuid, toUsername, currency, amount,
+                    transactionLog == null ? record : null);
 
-            if (!setBalanceInTransaction(conn, toUuid, toUsername, currencyId, toBalance + amount)) {
-                conn.rollback();
+            if (balances == null) {
                 return false;
             }
 
-            // Record transaction
-            recordTransactionInConnection(conn, fromUuid, toUuid, currencyId, amount, transactionType);
-
-            conn.commit();
+            if (transactionLog != null) {
+                transactionLog.append(record);
+            }
 
-            // Update cache
-            cache.computeIfAbsent(fromUuid, k -> new ConcurrentHashMap<>()).put(currencyId, fromBalance - amount);
-            cache.computeIfAbsent(toUuid, k -> new ConcurrentHashMap<>()).put(currencyId, toBalance + amount);
+            balanceChanged(fromUuid, fromUsername, currencyId, balances[0]);
+            balanceChanged(toUuid, toUsername, currencyId, balances[1]);
 
             return true;
 
         } catch (SQLException e) {
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException rollbackEx) {
-                    plugin.getLogger().log(Level.SEVERE, "Failed to rollback transaction", rollbackEx);
-                }
-            }
             plugin.getLogger().log(Level.SEVERE, "Transfer failed", e);
             return false;
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                } catch (SQLException e) {
-                    plugin.getLogger().log(Level.WARNING, "Failed to close connection", e);
-                }
-            }
         }
     }
 
-    private boolean setBalanceInTransaction(Connection conn, UUID uuid, String username, String currencyId, double amount) throws SQLException {
-        if (!ensurePlayerExistsInTransaction(conn, uuid, username)) {
+    private boolean transferInLedger(@NotNull UUID fromUuid, @NotNull String fromUsername,
+                                     @NotNull UUID toUuid, @NotNull String toUsername,
+                                     @NotNull String currencyId, double amount,
+                                     @NotNull String transactionType) {
+        if (Double.isNaN(applyDelta(fromUuid, fromUsername, currencyId, -amount))) {
+            return false;
+        }
+
+        // Refund the sender if the receiver would exceed the maximum
+        if (Double.isNaN(applyDelta(toUuid, toUsername, currencyId, amount))) {
+            applyDelta(fromUuid, fromUsername, currencyId, amount);
             return false;
         }
 
-        String query = """
-            INSERT INTO balances (uuid, currency, balance)
-            VALUES (?, ?, ?)
-            ON CONFLICT(uuid, currency) DO UPDATE SET balance = excluded.balance
-            """;
+        recordTransaction(fromUuid, toUuid, currencyId, amount, transactionType);
+        return true;
+    }
 
-        try (PreparedStatement ps = conn.prepareStatement(query)) {
-            ps.setString(1, uuid.toString());
-            ps.setString(2, currencyId);
-            ps.setDouble(3, amount);
-            return ps.executeUpdate() > 0;
+    /**
+     * Applies a give/set/remove/reset to every player with set-based SQL, in chunks.
+     * Cached balances are patched in place after each chunk.
+     *
+     * @param progress receives the number of players processed so far
+     * @return the result, or null if the operation failed (chunks already committed stay applied)
+     */
+    @org.jetbrains.annotations.Nullable
+    public BulkOperation.Result applyBulk(@NotNull BulkOperation operation, @NotNull IntConsumer progress) {
+        String currencyId = operation.currency().getId();
+        if (Double.isNaN(storage.normalize(currencyId, operation.amount()))) {
+            plugin.getLogger().warning("Bulk amount out of range for " + currencyId + ": " + operation.amount());
+            return null;
+        }
+
+        // Fewer unflushed balances to replay the operation on
+        if (writeBehind) {
+            flushPendingWrites();
+        }
+
+        // The flush lock is held from each chunk's commit until the ledger is patched, so no flush writes
+        // a balance the bulk change is missing; flushes still run between chunks
+        try {
+            return storage.applyBulk(operation, BULK_CHUNK_SIZE, flushLock, (balances, processed) -> {
+                patchBulkBalances(operation, balances);
+                progress.accept(processed);
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Bulk " + operation.transactionType() + " failed", e);
+            return null;
         }
     }
 
-    private boolean ensurePlayerExistsInTransaction(Connection conn, UUID uuid, String username) throws SQLException {
-        String query = """
-            INSERT INTO players (uuid, username, last_updated)
-            VALUES (?, ?, ?)
-            ON CONFLICT(uuid) DO UPDATE SET
-                username = excluded.username,
-                last_updated = excluded.last_updated
-            """;
+    private void patchBulkBalances(@NotNull BulkOperation operation, @NotNull List<BalanceEntry> balances) {
+        Currency currency = operation.currency();
+        String currencyId = currency.getId();
+        List<UUID> reverted = new ArrayList<>();
+        List<BalanceEntry> changed = new ArrayList<>(balances.size());
 
-        try (PreparedStatement ps = conn.prepareStatement(query)) {
-            ps.setString(1, uuid.toString());
-            ps.setString(2, username);
-            ps.setLong(3, System.currentTimeMillis());
-            ps.executeUpdate();
-            return true;
+        for (BalanceEntry entry : balances) {
+            UUID uuid = entry.uuid();
+
+            if (!writeBehind) {
+                patchCachedBalance(entry, currencyId);
+                changed.add(entry);
+                continue;
+            }
+
+            ledger.compute(uuid, currencyId, (key, pending) -> {
+                if (pending == null) {
+                    patchCachedBalance(entry, currencyId);
+                    changed.add(entry);
+                    return null;
+                }
+
+                // Based on the balance the chunk committed: the bulk change is already in it
+                if (pending.base() == entry.balance()) {
+                    return pending;
+                }
+
+                // Based on the balance before the chunk: replay the operation on the unflushed balance
+                double updated = operation.set()
+                        ? operation.amount()
+                        : storage.add(currencyId, pending.balance(), operation.amount());
+                if (Double.isNaN(updated) || !currency.isValidBalance(updated)) {
+                    // The unflushed changes were confirmed already, so the bulk change is the one taken back
+                    reverted.add(uuid);
+                    return pending;
+                }
+
+                cache.put(uuid, currencyId, updated);
+                changed.add(new BalanceEntry(uuid, pending.username(), updated));
+                return new WriteBehindLedger.PendingWrite(pending.username(), updated, entry.balance());
+            });
+        }
+
+        // Outside the entry locks, like every ledger update
+        for (BalanceEntry entry : changed) {
+            publishBalance(entry.uuid(), entry.username(), currencyId, entry.balance());
+        }
+
+        // The chunk logged the bulk change for these players; the next flush overwrites it, so log the reversal
+        for (UUID uuid : reverted) {
+            plugin.getLogger().warning("Bulk " + operation.transactionType() + " would exceed the limits of "
+                    + currencyId + " for " + uuid + " after its unflushed changes, reverting it for that player");
+            recordTransaction(null, uuid, currencyId, -operation.loggedAmount(), operation.transactionType() + "_REVERTED");
+        }
+    }
+
+    /**
+     * Applies a balance written by a bulk operation without pulling it into the cache
+     */
+    private void patchCachedBalance(@NotNull BalanceEntry entry, @NotNull String currencyId) {
+        if (cache.peek(entry.uuid(), currencyId) != null) {
+            cache.put(entry.uuid(), currencyId, entry.balance());
         }
     }
 
-    private void recordTransactionInConnection(Connection conn, UUID fromUuid, UUID toUuid, String currencyId, double amount, String type) throws SQLException {
-        String query = "INSERT INTO transactions (from_uuid, to_uuid, currency, amount, type, timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+    /**
+     * Records a changed balance in the cache and the leaderboard index
+     */
+    private void balanceChanged(@NotNull UUID uuid, @NotNull String username, @NotNull String currencyId, double balance) {
+        cache.put(uuid, currencyId, balance);
+        publishBalance(uuid, username, currencyId, balance);
+    }
 
-        try (PreparedStatement ps = conn.prepareStatement(query)) {
-            ps.setString(1, fromUuid != null ? fromUuid.toString() : null);
-            ps.setString(2, toUuid.toString());
-            ps.setString(3, currencyId);
-            ps.setDouble(4, amount);
-            ps.setString(5, type);
-            ps.setLong(6, System.currentTimeMillis());
-            ps.executeUpdate();
+    /**
+     * Updates the leaderboard index and notifies listeners; never call it inside a ledger entry lock,
+     * listeners may read or change balances
+     */
+    private void publishBalance(@NotNull UUID uuid, @NotNull String username, @NotNull String currencyId, double balance) {
+        leaderboard.update(uuid, username, currencyId, balance);
+        notifyListeners(uuid, currencyId, balance);
+    }
+
+    private void notifyListeners(@NotNull UUID uuid, @NotNull String currencyId, double balance) {
+        for (BalanceListener listener : balanceListeners) {
+            listener.balanceChanged(uuid, currencyId, balance);
         }
     }
 
-    public boolean hasAccount(@NotNull UUID uuid) {
-        String query = "SELECT 1 FROM players WHERE uuid = ?";
+    public void addBalanceListener(@NotNull BalanceListener listener) {
+        balanceListeners.add(listener);
+    }
 
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(query)) {
-            ps.setString(1, uuid.toString());
+    public void removeBalanceListener(@NotNull BalanceListener listener) {
+        balanceListeners.remove(listener);
+    }
 
-            try (ResultSet rs = ps.executeQuery()) {
-                return rs.next();
-            }
+    public boolean hasAccount(@NotNull UUID uuid) {
+        if (usernames.contains(uuid)) {
+            return true;
+        }
+
+        try {
+            return storage.hasPlayer(uuid);
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to check account for " + uuid, e);
         }
@@ -420,71 +764,327 @@ public class DatabaseManager {
         return ensurePlayerExists(uuid, username);
     }
 
-    public void recordTransaction(@org.jetbrains.annotations.Nullable UUID fromUuid, @NotNull UUID toUuid, @NotNull String currencyId, double amount, @NotNull String type) {
-        String query = "INSERT INTO transactions (from_uuid, to_uuid, currency, amount, type, timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+    /**
+     * Creates the account of a joining player or brings it up to date in one transaction:
+     * the player row (renames included), starter balances of all missing currencies and
+     * their audit rows. The player's balances are loaded and pinned in the cache for a
+     * while; {@link #recordJoin(UUID)} keeps them pinned until {@link #clearCache(UUID)}.
+     * Blocks on the database, never call it on the main thread.
+     *
+     * @return what was provisioned, or null if the database failed
+     */
+    @org.jetbrains.annotations.Nullable
+    public AccountProvision provisionAccount(@NotNull UUID uuid, @NotNull String username) {
+        AccountProvision provision;
+        try {
+            provision = storage.provisionAccount(uuid, username, plugin.getCurrencyManager().getCurrencies());
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to provision account for " + uuid, e);
+            return null;
+        }
+
+        usernames.put(uuid, username);
+        cache.pin(uuid, UNJOINED_PIN_MILLIS);
+
+        for (Map.Entry<String, Double> entry : provision.balances().entrySet()) {
+            // Unflushed write-behind balances are newer than the stored ones
+            if (writeBehind && ledger.getBalance(uuid, entry.getKey()) != null) {
+                continue;
+            }
+
+            if (provision.seeded().contains(entry.getKey())) {
+                balanceChanged(uuid, username, entry.getKey(), entry.getValue());
+            } else {
+                cache.put(uuid, entry.getKey(), entry.getValue());
+            }
+        }
 
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(query)) {
-            ps.setString(1, fromUuid != null ? fromUuid.toString() : null);
-            ps.setString(2, toUuid.toString());
-            ps.setString(3, currencyId);
-            ps.setDouble(4, amount);
-            ps.setString(5, type);
-            ps.setLong(6, System.currentTimeMillis());
+        return provision;
+    }
+
+    /**
+     * Resolves a name through the username index, without a blocking lookup for players with an account.
+     * Unknown names still go through the server, which may look them up.
+     */
+    @NotNull
+    public OfflinePlayer getOfflinePlayer(@NotNull String username) {
+        UUID uuid = usernames.get(username);
+        return uuid != null
+                ? plugin.getServer().getOfflinePlayer(uuid)
+                : plugin.getServer().getOfflinePlayer(username);
+    }
 
-            ps.executeUpdate();
+    /**
+     * Names of players with an account starting with a prefix, for tab completion
+     */
+    @NotNull
+    public List<String> completeUsernames(@NotNull String prefix) {
+        return usernames.complete(prefix, NAME_COMPLETION_LIMIT);
+    }
+
+    public void recordTransaction(@org.jetbrains.annotations.Nullable UUID fromUuid, @NotNull UUID toUuid, @NotNull String currencyId, double amount, @NotNull String type) {
+        TransactionLogAppender.TransactionRecord record = new TransactionLogAppender.TransactionRecord(
+                fromUuid, toUuid, currencyId, amount, type, System.currentTimeMillis());
+
+        if (transactionLog != null) {
+            transactionLog.append(record);
+            return;
+        }
 
+        try {
+            storage.writeTransactions(List.of(record));
         } catch (SQLException e) {
             plugin.getLogger().log(Level.WARNING, "Failed to record transaction", e);
         }
     }
 
+    /**
+     * Number of transaction records waiting to be written (0 when logging synchronously)
+     */
+    public int getTransactionQueueDepth() {
+        return transactionLog != null ? transactionLog.getQueueDepth() : 0;
+    }
+
+    @org.jetbrains.annotations.Nullable
+    public TransactionLogAppender getTransactionLog() {
+        return transactionLog;
+    }
+
+    /**
+     * Gets a leaderboard page, from the latest snapshot when it covers the page
+     */
     @NotNull
     public List<BalanceEntry> getTopBalances(@NotNull String currencyId, int limit, int offset) {
-        List<BalanceEntry> entries = new ArrayList<>();
-        String query = """
-            SELECT p.uuid, p.username, b.balance
-            FROM balances b
-            JOIN players p ON b.uuid = p.uuid
-            WHERE b.currency = ?
-            ORDER BY b.balance DESC
-            LIMIT ? OFFSET ?
-            """;
-
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(query)) {
-            ps.setString(1, currencyId);
-            ps.setInt(2, limit);
-            ps.setInt(3, offset);
-
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    UUID uuid = UUID.fromString(rs.getString("uuid"));
-                    String username = rs.getString("username");
-                    double balance = rs.getDouble("balance");
-
-                    entries.add(new BalanceEntry(uuid, username, balance));
-                }
-            }
+        BaltopSnapshot snapshot = baltopSnapshots.get().get(currencyId);
+        if (snapshot != null && snapshot.covers(limit, offset)) {
+            return snapshot.page(limit, offset);
+        }
+
+        return loadTopBalances(currencyId, limit, offset);
+    }
+
+    /**
+     * Gets the entry at a 1-based leaderboard position, or null if there is none
+     */
+    @org.jetbrains.annotations.Nullable
+    public BalanceEntry getTopEntry(@NotNull String currencyId, int position) {
+        if (position < 1) {
+            return null;
+        }
+
+        List<BalanceEntry> entries = getTopBalances(currencyId, 1, position - 1);
+        return entries.isEmpty() ? null : entries.get(0);
+    }
+
+    /**
+     * Number of ranked players in a currency, as of the latest snapshot. Never queries
+     * the database, so it is safe on the main thread.
+     *
+     * @return the size, or -1 while there is no snapshot and the index is still loading
+     */
+    public int getLeaderboardSize(@NotNull String currencyId) {
+        BaltopSnapshot snapshot = baltopSnapshots.get().get(currencyId);
+        if (snapshot != null) {
+            return snapshot.size();
+        }
+
+        return leaderboard.isLoaded(currencyId) ? leaderboard.size(currencyId) : -1;
+    }
+
+    /**
+     * Number of ranked players in a currency, counted in the database when it is not
+     * known in memory yet. Blocks on the database, never call it on the main thread.
+     */
+    public int countLeaderboard(@NotNull String currencyId) {
+        int size = getLeaderboardSize(currencyId);
+        return size != -1 ? size : countStoredBalances(currencyId);
+    }
+
+    /**
+     * Number of balances stored in a currency, 0 if the count failed
+     */
+    private int countStoredBalances(@NotNull String currencyId) {
+        try {
+            return storage.countBalances(currencyId);
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to count balances of " + currencyId, e);
+            return 0;
+        }
+    }
+
+    /**
+     * Milliseconds since the baltop snapshot of a currency was taken, -1 if there is none
+     */
+    public long getBaltopSnapshotAge(@NotNull String currencyId) {
+        BaltopSnapshot snapshot = baltopSnapshots.get().get(currencyId);
+        return snapshot != null ? snapshot.getAgeMillis() : -1;
+    }
+
+    /**
+     * Rebuilds the top-N snapshot of every currency and swaps them in at once
+     */
+    public void refreshBaltopSnapshots() {
+        int snapshotSize = plugin.getConfigManager().getBaltopSnapshotSize();
+        Map<String, BaltopSnapshot> snapshots = new HashMap<>();
+
+        for (Currency currency : plugin.getCurrencyManager().getCurrencies()) {
+            String currencyId = currency.getId();
+            int size = leaderboard.isLoaded(currencyId) ? leaderboard.size(currencyId) : countStoredBalances(currencyId);
+            List<BalanceEntry> entries = loadTopBalances(currencyId, snapshotSize, 0);
 
+            snapshots.put(currencyId, new BaltopSnapshot(entries, Math.max(size, entries.size()), System.currentTimeMillis()));
+        }
+
+        baltopSnapshots.set(Map.copyOf(snapshots));
+    }
+
+    private void startBaltopTask() {
+        int interval = plugin.getConfigManager().getBaltopUpdateInterval();
+        if (!open || interval <= 0) {
+            return;
+        }
+
+        plugin.getServer().getScheduler().runTaskTimerAsynchronously(
+                plugin,
+                this::refreshBaltopSnapshots,
+                interval * 20L,
+                interval * 20L
+        );
+    }
+
+    @NotNull
+    private List<BalanceEntry> loadTopBalances(@NotNull String currencyId, int limit, int offset) {
+        if (leaderboard.isLoaded(currencyId)) {
+            return leaderboard.getPage(currencyId, limit, offset);
+        }
+
+        try {
+            return storage.getTopBalances(currencyId, limit, offset);
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to get top balances", e);
         }
 
-        return entries;
+        return new ArrayList<>();
     }
 
-    public int getTotalPlayers() {
-        String query = "SELECT COUNT(*) as count FROM players";
+    // ═══════════════════ LEADERBOARD ═══════════════════
+
+    /**
+     * Gets the 1-based leaderboard position of a player, or -1 if the player has no balance.
+     * Until the index is loaded the rank is counted with an indexed range query.
+     */
+    public int getRank(@NotNull UUID uuid, @NotNull String currencyId) {
+        if (leaderboard.isLoaded(currencyId)) {
+            return leaderboard.getRank(uuid, currencyId);
+        }
+
+        double balance = getBalance(uuid, currencyId);
+        if (balance == -1) {
+            return -1;
+        }
+
+        try {
+            return storage.countHigherBalances(currencyId, balance, uuid) + 1;
+        } catch (SQLException | ArithmeticException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to get rank for " + uuid, e);
+            return -1;
+        }
+    }
+
+    /**
+     * Gets the players ranked up to radius places above and below a player.
+     * Until the index is loaded it only holds players changed since startup, so the window is read from storage.
+     */
+    @NotNull
+    public List<BalanceEntry> getBalancesAround(@NotNull UUID uuid, @NotNull String currencyId, int radius) {
+        if (leaderboard.isLoaded(currencyId)) {
+            return leaderboard.getAround(uuid, currencyId, radius);
+        }
+
+        int rank = getRank(uuid, currencyId);
+        if (rank == -1) {
+            return Collections.emptyList();
+        }
+
+        int offset = Math.max(0, rank - 1 - radius);
+        return loadTopBalances(currencyId, rank - offset + radius, offset);
+    }
+
+    public boolean isLeaderboardLoaded(@NotNull String currencyId) {
+        return leaderboard.isLoaded(currencyId);
+    }
+
+    /**
+     * Loads the names of all players into the username index in the background
+     */
+    private void startUsernameLoad() {
+        if (!open) {
+            return;
+        }
+
+        runAsync(() -> {
+            try {
+                long started = System.currentTimeMillis();
+                usernames.load(storage.getPlayerNames());
+
+                plugin.getLogger().info("Username index loaded: " + usernames.size() + " players in "
+                        + (System.currentTimeMillis() - started) + "ms");
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to load username index", e);
+            }
+        });
+    }
+
+    /**
+     * Streams the stored balances of a currency into the leaderboard index, a chunk at a time
+     */
+    private void loadLeaderboard(@NotNull String currencyId) throws SQLException {
+        List<BalanceEntry> chunk = new ArrayList<>(LEADERBOARD_LOAD_CHUNK_SIZE);
+        storage.forEachBalance(currencyId, entry -> {
+            chunk.add(entry);
+            if (chunk.size() >= LEADERBOARD_LOAD_CHUNK_SIZE) {
+                leaderboard.addStored(currencyId, chunk);
+                chunk.clear();
+            }
+        });
+        leaderboard.addStored(currencyId, chunk);
+        leaderboard.markLoaded(currencyId);
+    }
+
+    /**
+     * Loads every currency's balances into the leaderboard index in the background.
+     * Until a currency is loaded its leaderboard is read from the database.
+     */
+    private void startLeaderboardLoad() {
+        if (!open) {
+            return;
+        }
+
+        runLongAsync(() -> {
+            for (Currency currency : plugin.getCurrencyManager().getCurrencies()) {
+                try {
+                    long started = System.currentTimeMillis();
+                    loadLeaderboard(currency.getId());
 
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(query);
-             ResultSet rs = ps.executeQuery()) {
+                    plugin.getLogger().info("Leaderboard index for " + currency.getId() + " loaded: "
+                            + leaderboard.size(currency.getId()) + " balances in "
+                            + (System.currentTimeMillis() - started) + "ms");
+                } catch (SQLException e) {
+                    plugin.getLogger().log(Level.WARNING, "Failed to load leaderboard for " + currency.getId()
+                            + ", using the database instead", e);
+                }
+            }
 
-            if (rs.next()) {
-                return rs.getInt("count");
+            // First snapshot right away instead of after a full interval
+            if (plugin.getConfigManager().getBaltopUpdateInterval() > 0) {
+                refreshBaltopSnapshots();
             }
+        });
+    }
 
+    public int getTotalPlayers() {
+        try {
+            return storage.countPlayers();
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to get total players", e);
         }
@@ -494,42 +1094,177 @@ public class DatabaseManager {
 
     @NotNull
     public List<UUID> getAllPlayerUUIDs() {
-        List<UUID> uuids = new ArrayList<>();
-        String query = "SELECT uuid FROM players";
+        try {
+            return storage.getPlayerUuids();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to get all player UUIDs", e);
+        }
 
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(query);
-             ResultSet rs = ps.executeQuery()) {
+        return new ArrayList<>();
+    }
 
-            while (rs.next()) {
-                uuids.add(UUID.fromString(rs.getString("uuid")));
-            }
+    public boolean isFixedPoint() {
+        return storage.isFixedPoint();
+    }
 
-        } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Failed to get all player UUIDs", e);
+    // ═══════════════════ WRITE-BEHIND ═══════════════════
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehind;
+    }
+
+    public int getPendingWriteCount() {
+        return ledger.size();
+    }
+
+    /**
+     * Flushes all dirty balances to the database
+     */
+    public void flushPendingWrites() {
+        flushLock.lock();
+        try {
+            flush(ledger.snapshot());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes dirty balances of a single player (used on quit)
+     */
+    public void flushPendingWrites(@NotNull UUID uuid) {
+        flushLock.lock();
+        try {
+            flush(ledger.snapshot(uuid));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes a batch of pending balances in one transaction.
+     * Failed batches stay in the ledger and are retried on the next flush.
+     */
+    private void flush(@NotNull Map<WriteBehindLedger.BalanceKey, WriteBehindLedger.PendingWrite> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            storage.saveBalances(batch);
+            ledger.markFlushed(batch);
+
+        } catch (SQLException | ArithmeticException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to flush " + batch.size() + " pending balances, will retry", e);
+        }
+    }
+
+    private void startFlushTask() {
+        if (!writeBehind) {
+            return;
         }
 
-        return uuids;
+        int interval = Math.max(1, plugin.getConfigManager().getWriteBehindFlushInterval());
+
+        plugin.getServer().getScheduler().runTaskTimerAsynchronously(
+                plugin,
+                this::flushPendingWrites,
+                interval * 20L,
+                interval * 20L
+        );
+
+        plugin.getLogger().info("Write-behind mode enabled (flush every " + interval + "s)");
+    }
+
+    // ═══════════════════ STORAGE METRICS ═══════════════════
+
+    @NotNull
+    public String getStorageName() {
+        return storage.getName();
+    }
+
+    @NotNull
+    public SqlMetrics.Snapshot getReadMetrics() {
+        return storage.getReadMetrics();
+    }
+
+    @NotNull
+    public SqlMetrics.Snapshot getWriteMetrics() {
+        return storage.getWriteMetrics();
     }
 
     public void clearCache(@NotNull UUID uuid) {
-        cache.remove(uuid);
+        cache.invalidate(uuid);
     }
 
     public void clearAllCache() {
-        cache.clear();
+        cache.invalidateAll();
         plugin.getLogger().info("Cleared all database cache");
     }
 
+    @NotNull
+    public MainThreadMonitor getMainThreadMonitor() {
+        return mainThreadMonitor;
+    }
+
+    @NotNull
+    public StorageExecutor.Stats getExecutorStats() {
+        return storageExecutor.getStats();
+    }
+
+    @NotNull
+    public BalanceCache.Stats getCacheStats() {
+        return cache.getStats();
+    }
+
+    /**
+     * Pins the balances of a joining player until it quits and records whether
+     * every balance was already in memory
+     *
+     * @return true if the join was warm
+     */
+    public boolean recordJoin(@NotNull UUID uuid) {
+        cache.pin(uuid);
+
+        boolean warm = true;
+        for (Currency currency : plugin.getCurrencyManager().getCurrencies()) {
+            if (cache.peek(uuid, currency.getId()) == null
+                    && !(writeBehind && ledger.getBalance(uuid, currency.getId()) != null)) {
+                warm = false;
+                break;
+            }
+        }
+
+        (warm ? warmJoins : coldJoins).increment();
+        return warm;
+    }
+
+    public long getWarmJoinCount() {
+        return warmJoins.sum();
+    }
+
+    public long getJoinCount() {
+        return warmJoins.sum() + coldJoins.sum();
+    }
+
+    /**
+     * Share of joins with all balances prefetched, 0 to 1
+     */
+    public double getWarmJoinRate() {
+        long warm = warmJoins.sum();
+        long total = warm + coldJoins.sum();
+        return total == 0 ? 0 : (double) warm / total;
+    }
+
     public void createBackup() {
-        if (!plugin.getConfigManager().isBackupEnabled()) {
+        if (!plugin.getConfigManager().isBackupEnabled() || !storage.supportsBackups()) {
             return;
         }
 
         try {
-            // IMPORTANT: Checkpoint WAL before backup
-            try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
-                stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+            // Make sure the backup contains every balance
+            if (writeBehind) {
+                flushPendingWrites();
             }
 
             File backupFolder = new File(plugin.getDataFolder(), "backups");
@@ -542,7 +1277,7 @@ public class DatabaseManager {
             String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
             File backupFile = new File(backupFolder, "economy_" + timestamp + ".db");
 
-            Files.copy(databaseFile.toPath(), backupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            storage.backup(backupFile);
 
             plugin.getLogger().info("Database backup created: " + backupFile.getName());
 
@@ -574,6 +1309,11 @@ public class DatabaseManager {
             return;
         }
 
+        if (!storage.supportsBackups()) {
+            plugin.getLogger().info("Automatic backups are not available for " + storage.getName() + ", back up the database server instead");
+            return;
+        }
+
         int interval = plugin.getConfigManager().getBackupInterval();
 
         plugin.getServer().getScheduler().runTaskTimerAsynchronously(
@@ -586,15 +1326,44 @@ public class DatabaseManager {
 
     public void close() {
         try {
-            if (dataSource != null && !dataSource.isClosed()) {
-                // IMPORTANT: Checkpoint and close WAL properly
-                try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
-                    stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
-                    stmt.execute("PRAGMA optimize");
+            // Let in-flight payments finish before the final flush
+            if (!storageExecutor.shutdown(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Storage tasks did not finish in time, cancelling them");
+            }
+
+            if (open) {
+                open = false;
+
+                if (writeBehind) {
+                    flushPendingWrites();
+                    if (!ledger.isEmpty()) {
+                        plugin.getLogger().severe("Could not flush " + ledger.size() + " balances before shutdown!");
+                    }
+                }
+
+                if (transactionLog != null) {
+                    transactionLog.close();
+                    plugin.getLogger().info("Transaction log closed (" + transactionLog.getWrittenCount() + " records written)");
                 }
 
-                dataSource.close();
-                plugin.getLogger().info("Database connection pool closed (WAL checkpointed)");
+                storage.close();
+                plugin.getLogger().info("Balance cache: " + cache.getStats());
+                plugin.getLogger().info("Storage executor: " + storageExecutor.getStats());
+                plugin.getLogger().info(String.format("Warm joins: %d/%d (%.1f%%)",
+                        getWarmJoinCount(), getJoinCount(), getWarmJoinRate() * 100));
+                plugin.getLogger().info("Reads: " + getReadMetrics());
+                plugin.getLogger().info("Writes: " + getWriteMetrics());
+
+                long mainThreadCalls = 0;
+                double mainThreadMillis = 0;
+                for (MainThreadMonitor.SiteSnapshot site : mainThreadMonitor.snapshot()) {
+                    mainThreadCalls += site.count();
+                    mainThreadMillis += site.totalMillis();
+                }
+                if (mainThreadCalls > 0) {
+                    plugin.getLogger().info(String.format("Main-thread database calls: %d (%.1f ms), see /eco debug mainthread",
+                            mainThreadCalls, mainThreadMillis));
+                }
             }
         } catch (Exception e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to close database", e);
@@ -602,4 +1371,61 @@ public class DatabaseManager {
     }
 
     public record BalanceEntry(@NotNull UUID uuid, @NotNull String username, double balance) {}
-}
\ No newline at end of file
+
+    /**
+     * All balances of a player at one point in time
+     *
+     * @param balances balance per currency id, in currency order; currencies the player has no balance in are left out
+     */
+    public record AccountSnapshot(@NotNull UUID uuid, @NotNull Map<String, Double> balances, long timestamp) {
+
+        /**
+         * Gets the balance in a currency, -1 if the player has none
+         */
+        public double getBalance(@NotNull String currencyId) {
+            Double balance = balances.get(currencyId);
+            return balance != null ? balance : -1;
+        }
+
+        public boolean hasBalance(@NotNull String currencyId) {
+            return balances.containsKey(currencyId);
+        }
+    }
+
+    /**
+     * Result of {@link #changeBalance}
+     *
+     * @param balance the new balance on success; otherwise the last known balance, or NaN if it is not in memory
+     */
+    public record BalanceChange(@NotNull Status status, double balance) {
+
+        public enum Status {
+            SUCCESS,
+            // Missing account or a limit of the currency
+            REJECTED,
+            // The database failed, nothing is known about the balance
+            ERROR
+        }
+
+        static BalanceChange success(double balance) {
+            return new BalanceChange(Status.SUCCESS, balance);
+        }
+
+        static BalanceChange rejected(double balance) {
+            return new BalanceChange(Status.REJECTED, balance);
+        }
+
+        static BalanceChange error() {
+            return new BalanceChange(Status.ERROR, Double.NaN);
+        }
+    }
+
+    /**
+     * Result of {@link #provisionAccount(UUID, String)}
+     *
+     * @param created  whether the player had no account before
+     * @param balances every balance of the player, by currency id
+     * @param seeded   currencies that got their starter balance
+     */
+    public record AccountProvision(boolean created, @NotNull Map<String, Double> balances, @NotNull List<String> seeded) {}
+}
@@ -0,0 +1,13 @@
+package tr.balzach.coderaEconomy.database;
+
+/**
+ * Threads the storage executor runs blocking database work on
+ */
+public enum ExecutorType {
+
+    /** A fixed pool of platform threads */
+    PLATFORM,
+
+    /** One virtual thread per task (Java 21+), falls back to PLATFORM on older runtimes */
+    VIRTUAL
+}
@@ -0,0 +1,310 @@
+package tr.balzach.coderaEconomy.database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import tr.balzach.coderaEconomy.database.DatabaseManager.BalanceEntry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-memory leaderboard per currency, ordered by balance (highest first).
+ *
+ * Every currency has an order-statistic treap (each node knows the size of its
+ * subtree), so pages, ranks and "players around me" windows take O(log n)
+ * instead of an ORDER BY ... OFFSET scan. The index is loaded once from the
+ * database and then kept up to date on every balance change.
+ */
+public class LeaderboardIndex {
+
+    private final Map<String, Board> boards = new ConcurrentHashMap<>();
+
+    /**
+     * Adds stored balances of a currency while it is being loaded. Entries
+     * changed while the balances were being loaded are newer and are kept.
+     */
+    public void addStored(@NotNull String currencyId, @NotNull List<BalanceEntry> entries) {
+        board(currencyId).addStored(entries);
+    }
+
+    /**
+     * Marks a currency as fully loaded, from now on it is served from memory
+     */
+    public void markLoaded(@NotNull String currencyId) {
+        board(currencyId).markLoaded();
+    }
+
+    /**
+     * Whether the currency has been loaded and can be served from memory
+     */
+    public boolean isLoaded(@NotNull String currencyId) {
+        Board board = boards.get(currencyId);
+        return board != null && board.isLoaded();
+    }
+
+    public void update(@NotNull UUID uuid, @NotNull String username, @NotNull String currencyId, double balance) {
+        board(currencyId).put(uuid, username, balance);
+    }
+
+    /**
+     * Updates a balance, keeping the username already known for the player
+     */
+    public void update(@NotNull UUID uuid, @NotNull String currencyId, double balance) {
+        board(currencyId).put(uuid, null, balance);
+    }
+
+    @NotNull
+    public List<BalanceEntry> getPage(@NotNull String currencyId, int limit, int offset) {
+        Board board = boards.get(currencyId);
+        return board != null ? board.page(limit, offset) : Collections.emptyList();
+    }
+
+    /**
+     * Gets the 1-based position of a player, or -1 if the player has no balance
+     */
+    public int getRank(@NotNull UUID uuid, @NotNull String currencyId) {
+        Board board = boards.get(currencyId);
+        return board != null ? board.rank(uuid) : -1;
+    }
+
+    /**
+     * Gets up to radius players above and below a player, including the player
+     */
+    @NotNull
+    public List<BalanceEntry> getAround(@NotNull UUID uuid, @NotNull String currencyId, int radius) {
+        Board board = boards.get(currencyId);
+        return board != null ? board.around(uuid, radius) : Collections.emptyList();
+    }
+
+    public int size(@NotNull String currencyId) {
+        Board board = boards.get(currencyId);
+        return board != null ? board.size() : 0;
+    }
+
+    @NotNull
+    private Board board(@NotNull String currencyId) {
+        return boards.computeIfAbsent(currencyId, id -> new Board());
+    }
+
+    // ═══════════════════ TREAP ═══════════════════
+
+    private static final class Board {
+
+        private final Map<UUID, Node> nodes = new HashMap<>();
+        private Node root;
+        private boolean loaded;
+
+        synchronized boolean isLoaded() {
+            return loaded;
+        }
+
+        synchronized int size() {
+            return nodes.size();
+        }
+
+        synchronized void addStored(@NotNull List<BalanceEntry> entries) {
+            for (BalanceEntry entry : entries) {
+                if (!nodes.containsKey(entry.uuid())) {
+                    insert(new Node(entry.uuid(), entry.username(), entry.balance()));
+                }
+            }
+        }
+
+        synchronized void markLoaded() {
+            loaded = true;
+        }
+
+        synchronized void put(@NotNull UUID uuid, @Nullable String username, double balance) {
+            Node old = nodes.get(uuid);
+            if (old != null) {
+                if (old.balance == balance && (username == null || username.equals(old.username))) {
+                    return;
+                }
+                delete(old);
+            }
+
+            String name = username != null ? username : old != null ? old.username : "Unknown";
+            insert(new Node(uuid, name, balance));
+        }
+
+        synchronized int rank(@NotNull UUID uuid) {
+            Node target = nodes.get(uuid);
+            if (target == null) {
+                return -1;
+            }
+
+            int rank = 0;
+            Node node = root;
+            while (node != null) {
+                int cmp = compare(target, node);
+                if (cmp < 0) {
+                    node = node.left;
+                } else {
+                    rank += size(node.left);
+                    if (cmp == 0) {
+                        return rank + 1;
+                    }
+                    rank++;
+                    node = node.right;
+                }
+            }
+            return -1;
+        }
+
+        @NotNull
+        synchronized List<BalanceEntry> page(int limit, int offset) {
+            List<BalanceEntry> result = new ArrayList<>(Math.max(0, Math.min(limit, size(root) - offset)));
+            if (limit > 0 && offset >= 0) {
+                collect(root, offset, (int) Math.min((long) offset + limit, Integer.MAX_VALUE), result);
+            }
+            return result;
+        }
+
+        @NotNull
+        synchronized List<BalanceEntry> around(@NotNull UUID uuid, int radius) {
+            int rank = rank(uuid);
+            if (rank == -1) {
+                return Collections.emptyList();
+            }
+
+            int from = Math.max(0, rank - 1 - radius);
+            return page(rank - from + radius, from);
+        }
+
+        /**
+         * Appends the nodes at in-order positions [from, to) of a subtree
+         */
+        private static void collect(@Nullable Node node, int from, int to, @NotNull List<BalanceEntry> out) {
+            if (node == null || from >= to) {
+                return;
+            }
+
+            int leftSize = size(node.left);
+            if (from < leftSize) {
+                collect(node.left, from, Math.min(to, leftSize), out);
+            }
+            if (from <= leftSize && leftSize < to) {
+                out.add(new BalanceEntry(node.uuid, node.username, node.balance));
+            }
+            if (to > leftSize + 1) {
+                collect(node.right, Math.max(0, from - leftSize - 1), to - leftSize - 1, out);
+            }
+        }
+
+        private void insert(@NotNull Node node) {
+            Node[] parts = split(root, node);
+            root = merge(merge(parts[0], node), parts[1]);
+            nodes.put(node.uuid, node);
+        }
+
+        private void delete(@NotNull Node node) {
+            Node[] parts = split(root, node);
+            root = merge(parts[0], removeFirst(parts[1]));
+            nodes.remove(node.uuid);
+        }
+
+        /**
+         * Splits a subtree into the nodes ordered before the key and the rest
+         */
+        @NotNull
+        private static Node[] split(@Nullable Node node, @NotNull Node key) {
+            if (node == null) {
+                return new Node[2];
+            }
+
+            if (compare(node, key) < 0) {
+                Node[] parts = split(node.right, key);
+                node.right = parts[0];
+                node.update();
+                parts[0] = node;
+                return parts;
+            }
+
+            Node[] parts = split(node.left, key);
+            node.left = parts[1];
+            node.update();
+            parts[1] = node;
+            return parts;
+        }
+
+        @Nullable
+        private static Node merge(@Nullable Node left, @Nullable Node right) {
+            if (left == null) {
+                return right;
+            }
+            if (right == null) {
+                return left;
+            }
+
+            if (left.priority > right.priority) {
+                left.right = merge(left.right, right);
+                left.update();
+                return left;
+            }
+
+            right.left = merge(left, right.left);
+            right.update();
+            return right;
+        }
+
+        @Nullable
+        private static Node removeFirst(@Nullable Node node) {
+            if (node == null) {
+                return null;
+            }
+            if (node.left == null) {
+                return node.right;
+            }
+
+            node.left = removeFirst(node.left);
+            node.update();
+            return node;
+        }
+
+        /**
+         * Highest balance first, ties broken by uuid so every player has a fixed position.
+         * Uuids compare unsigned, like their binary form in the database, so ranks match
+         * the ones the database computes before the index is loaded.
+         */
+        private static int compare(@NotNull Node a, @NotNull Node b) {
+            int cmp = Double.compare(b.balance, a.balance);
+            if (cmp != 0) {
+                return cmp;
+            }
+            cmp = Long.compareUnsigned(a.uuid.getMostSignificantBits(), b.uuid.getMostSignificantBits());
+            return cmp != 0 ? cmp : Long.compareUnsigned(a.uuid.getLeastSignificantBits(), b.uuid.getLeastSignificantBits());
+        }
+
+        private static int size(@Nullable Node node) {
+            return node != null ? node.size : 0;
+        }
+    }
+
+    private static final class Node {
+
+        private final UUID uuid;
+        private final String username;
+        private final double balance;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        private Node(@NotNull UUID uuid, @NotNull String username, double balance) {
+            this.uuid = uuid;
+            this.username = username;
+            this.balance = balance;
+        }
+
+        private void update() {
+            size = 1 + Board.size(left) + Board.size(right);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package tr.balzach.coderaEconomy.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts database calls made on the server thread, per call site.
+ *
+ * The call site is the first caller outside the database package, e.g.
+ * VaultHook.getBalance:253, so the report points at the code to move off
+ * the main thread. Every site keeps a count, total and maximum latency and a
+ * small latency histogram; the sum is the tick time the economy cost.
+ */
+public class MainThreadMonitor {
+
+    // Upper bounds of the histogram buckets in microseconds, the last bucket is open
+    private static final long[] BUCKET_MICROS = {100, 500, 1_000, 2_000, 5_000, 10_000, 50_000};
+    private static final String[] BUCKET_LABELS = {"<0.1ms", "<0.5ms", "<1ms", "<2ms", "<5ms", "<10ms", "<50ms", ">=50ms"};
+
+    // New sites beyond this many are counted under one overflow site
+    private static final int MAX_SITES = 256;
+    private static final String OVERFLOW_SITE = "(other)";
+
+    private static final String DATABASE_PACKAGE = MainThreadMonitor.class.getPackageName() + ".";
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+    private volatile long since = System.currentTimeMillis();
+
+    /**
+     * Records a call that ran on the main thread; finds the call site from the current stack
+     */
+    public void record(@NotNull String operation, long nanos) {
+        String key = operation + " @ " + callSite();
+
+        Site site = sites.get(key);
+        if (site == null) {
+            site = sites.size() < MAX_SITES
+                    ? sites.computeIfAbsent(key, Site::new)
+                    : sites.computeIfAbsent(OVERFLOW_SITE, Site::new);
+        }
+        site.record(nanos);
+    }
+
+    public void reset() {
+        sites.clear();
+        since = System.currentTimeMillis();
+    }
+
+    /**
+     * When counting started, at startup or at the last reset
+     */
+    public long getSince() {
+        return since;
+    }
+
+    /**
+     * All sites, the most expensive first
+     */
+    @NotNull
+    public List<SiteSnapshot> snapshot() {
+        List<SiteSnapshot> out = new ArrayList<>(sites.size());
+        for (Site site : sites.values()) {
+            out.add(site.snapshot());
+        }
+        out.sort(Comparator.comparingLong(SiteSnapshot::totalNanos).reversed());
+        return out;
+    }
+
+    @NotNull
+    private static String callSite() {
+        return WALKER.walk(frames -> frames
+                .filter(frame -> !frame.getClassName().startsWith(DATABASE_PACKAGE))
+                .findFirst()
+                .map(frame -> {
+                    String className = frame.getClassName();
+                    return className.substring(className.lastIndexOf('.') + 1)
+                            + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+                })
+                .orElse("unknown"));
+    }
+
+    private static final class Site {
+        private final String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder[] buckets = new LongAdder[BUCKET_LABELS.length];
+
+        private Site(@NotNull String name) {
+            this.name = name;
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+
+            long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+            int bucket = 0;
+            while (bucket < BUCKET_MICROS.length && micros >= BUCKET_MICROS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+        }
+
+        @NotNull
+        SiteSnapshot snapshot() {
+            long[] histogram = new long[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                histogram[i] = buckets[i].sum();
+            }
+            return new SiteSnapshot(name, count.sum(), totalNanos.sum(), maxNanos.get(), histogram);
+        }
+    }
+
+    /**
+     * @param histogram calls per latency bucket, see {@link #histogramString()}
+     */
+    public record SiteSnapshot(@NotNull String site, long count, long totalNanos, long maxNanos, long[] histogram) {
+
+        public double totalMillis() {
+            return totalNanos / 1_000_000.0;
+        }
+
+        public double averageMillis() {
+            return count == 0 ? 0 : totalMillis() / count;
+        }
+
+        public double maxMillis() {
+            return maxNanos / 1_000_000.0;
+        }
+
+        /**
+         * Non-empty buckets, e.g. "<0.1ms:40 <1ms:2"
+         */
+        @NotNull
+        public String histogramString() {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < histogram.length; i++) {
+                if (histogram[i] > 0) {
+                    if (!builder.isEmpty()) {
+                        builder.append(' ');
+                    }
+                    builder.append(BUCKET_LABELS[i]).append(':').append(histogram[i]);
+                }
+            }
+            return builder.toString();
+        }
+    }
+}
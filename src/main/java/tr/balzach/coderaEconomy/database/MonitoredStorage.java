@@ -0,0 +1,248 @@
+package tr.balzach.coderaEconomy.database;
+
+import org.bukkit.Server;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import tr.balzach.coderaEconomy.currency.Currency;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+/**
+ * Storage that reports the database calls made on the server thread to a {@link MainThreadMonitor}.
+ *
+ * Calls from other threads go straight to the wrapped storage; on the main
+ * thread the only cost is reading the clock twice and walking the stack once.
+ */
+public class MonitoredStorage implements StorageBackend {
+
+    private final StorageBackend delegate;
+    private final MainThreadMonitor monitor;
+    private final Server server;
+
+    public MonitoredStorage(@NotNull StorageBackend delegate, @NotNull MainThreadMonitor monitor, @NotNull Server server) {
+        this.delegate = delegate;
+        this.monitor = monitor;
+        this.server = server;
+    }
+
+    @Override
+    public void open() throws SQLException {
+        delegate.open();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    @NotNull
+    public String getName() {
+        return delegate.getName();
+    }
+
+    // ═══════════════════ PLAYERS ═══════════════════
+
+    @Override
+    public void savePlayer(@NotNull UUID uuid, @NotNull String username) throws SQLException {
+        time("savePlayer", () -> {
+            delegate.savePlayer(uuid, username);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean hasPlayer(@NotNull UUID uuid) throws SQLException {
+        return time("hasPlayer", () -> delegate.hasPlayer(uuid));
+    }
+
+    @Override
+    public int countPlayers() throws SQLException {
+        return time("countPlayers", delegate::countPlayers);
+    }
+
+    @Override
+    @NotNull
+    public List<UUID> getPlayerUuids() throws SQLException {
+        return time("getPlayerUuids", delegate::getPlayerUuids);
+    }
+
+    @Override
+    @NotNull
+    public Map<UUID, String> getPlayerNames() throws SQLException {
+        return time("getPlayerNames", delegate::getPlayerNames);
+    }
+
+    @Override
+    @NotNull
+    public DatabaseManager.AccountProvision provisionAccount(@NotNull UUID uuid, @NotNull String username,
+                                                             @NotNull Collection<Currency> currencies) throws SQLException {
+        return time("provisionAccount", () -> delegate.provisionAccount(uuid, username, currencies));
+    }
+
+    // ═══════════════════ BALANCES ═══════════════════
+
+    @Override
+    @Nullable
+    public Double loadBalance(@NotNull UUID uuid, @NotNull String currencyId) throws SQLException {
+        return time("loadBalance", () -> delegate.loadBalance(uuid, currencyId));
+    }
+
+    @Override
+    @NotNull
+    public Map<UUID, Double> loadBalances(@NotNull Collection<UUID> uuids, @NotNull String currencyId) throws SQLException {
+        return time("loadBalances", () -> delegate.loadBalances(uuids, currencyId));
+    }
+
+    @Override
+    @NotNull
+    public Map<String, Double> loadAccount(@NotNull UUID uuid) throws SQLException {
+        return time("loadAccount", () -> delegate.loadAccount(uuid));
+    }
+
+    @Override
+    public boolean saveBalance(@NotNull UUID uuid, @NotNull String username, @NotNull String currencyId, double amount) throws SQLException {
+        return time("saveBalance", () -> delegate.saveBalance(uuid, username, currencyId, amount));
+    }
+
+    @Override
+    public void saveBalances(@NotNull Map<WriteBehindLedger.BalanceKey, WriteBehindLedger.PendingWrite> balances) throws SQLException {
+        time("saveBalances", () -> {
+            delegate.saveBalances(balances);
+            return null;
+        });
+    }
+
+    @Override
+    @Nullable
+    public Double applyDelta(@NotNull UUID uuid, @NotNull String username, @NotNull Currency currency, double delta) throws SQLException {
+        return time("applyDelta", () -> delegate.applyDelta(uuid, username, currency, delta));
+    }
+
+    @Override
+    @Nullable
+    public double[] transfer(@NotNull UUID fromUuid, @NotNull String fromUsername,
+                             @NotNull UUID toUuid, @NotNull String toUsername,
+                             @NotNull Currency currency, double amount,
+                             @Nullable TransactionLogAppender.TransactionRecord record) throws SQLException {
+        return time("transfer", () -> delegate.transfer(fromUuid, fromUsername, toUuid, toUsername, currency, amount, record));
+    }
+
+    @Override
+    @NotNull
+    public BulkOperation.Result applyBulk(@NotNull BulkOperation operation, int chunkSize, @NotNull Lock chunkLock,
+                                          @NotNull BulkOperation.Listener listener) throws SQLException {
+        return time("applyBulk", () -> delegate.applyBulk(operation, chunkSize, chunkLock, listener));
+    }
+
+    @Override
+    @NotNull
+    public List<DatabaseManager.BalanceEntry> getTopBalances(@NotNull String currencyId, int limit, int offset) throws SQLException {
+        return time("getTopBalances", () -> delegate.getTopBalances(currencyId, limit, offset));
+    }
+
+    @Override
+    public void forEachBalance(@NotNull String currencyId, @NotNull Consumer<DatabaseManager.BalanceEntry> consumer) throws SQLException {
+        time("forEachBalance", () -> {
+            delegate.forEachBalance(currencyId, consumer);
+            return null;
+        });
+    }
+
+    @Override
+    public int countBalances(@NotNull String currencyId) throws SQLException {
+        return time("countBalances", () -> delegate.countBalances(currencyId));
+    }
+
+    @Override
+    public int countHigherBalances(@NotNull String currencyId, double balance, @NotNull UUID uuid) throws SQLException {
+        return time("countHigherBalances", () -> delegate.countHigherBalances(currencyId, balance, uuid));
+    }
+
+    @Override
+    public double normalize(@NotNull String currencyId, double amount) {
+        return delegate.normalize(currencyId, amount);
+    }
+
+    @Override
+    public double add(@NotNull String currencyId, double a, double b) {
+        return delegate.add(currencyId, a, b);
+    }
+
+    @Override
+    public boolean isFixedPoint() {
+        return delegate.isFixedPoint();
+    }
+
+    // ═══════════════════ TRANSACTIONS ═══════════════════
+
+    @Override
+    public void writeTransactions(@NotNull List<TransactionLogAppender.TransactionRecord> records) throws SQLException {
+        time("writeTransactions", () -> {
+            delegate.writeTransactions(records);
+            return null;
+        });
+    }
+
+    // ═══════════════════ BACKUPS ═══════════════════
+
+    @Override
+    public boolean supportsBackups() {
+        return delegate.supportsBackups();
+    }
+
+    @Override
+    public void backup(@NotNull File target) throws SQLException, IOException {
+        if (!server.isPrimaryThread()) {
+            delegate.backup(target);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            delegate.backup(target);
+        } finally {
+            monitor.record("backup", System.nanoTime() - start);
+        }
+    }
+
+    // ═══════════════════ METRICS ═══════════════════
+
+    @Override
+    @NotNull
+    public SqlMetrics.Snapshot getReadMetrics() {
+        return delegate.getReadMetrics();
+    }
+
+    @Override
+    @NotNull
+    public SqlMetrics.Snapshot getWriteMetrics() {
+        return delegate.getWriteMetrics();
+    }
+
+    private <T> T time(@NotNull String operation, @NotNull StorageCall<T> call) throws SQLException {
+        if (!server.isPrimaryThread()) {
+            return call.call();
+        }
+
+        long start = System.nanoTime();
+        try {
+            return call.call();
+        } finally {
+            monitor.record(operation, System.nanoTime() - start);
+        }
+    }
+
+    @FunctionalInterface
+    private interface StorageCall<T> {
+        T call() throws SQLException;
+    }
+}
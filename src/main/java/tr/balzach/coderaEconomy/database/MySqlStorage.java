@@ -0,0 +1,220 @@
+package tr.balzach.coderaEconomy.database;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.jetbrains.annotations.NotNull;
+import tr.balzach.coderaEconomy.CoderaEconomy;
+import tr.balzach.coderaEconomy.config.ConfigManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * MySQL / MariaDB storage for networks that outgrow a single SQLite writer.
+ * Uses the same schema as SQLite: BINARY(16) uuids and interned currency/type ids.
+ */
+public class MySqlStorage extends AbstractJdbcStorage {
+
+    // Largest double below 10^30: DECIMAL(38, 8) has 30 integer digits and strict mode rejects anything larger
+    private static final double MAX_DECIMAL_AMOUNT = 9.999999999999999e29;
+
+    private final StorageType type;
+    private int poolSize;
+
+    public MySqlStorage(@NotNull CoderaEconomy plugin, @NotNull StorageType type) {
+        super(plugin);
+        this.type = type;
+    }
+
+    /**
+     * Connector/J reads the whole result into memory unless the fetch size is Integer.MIN_VALUE
+     */
+    @Override
+    protected int streamingFetchSize() {
+        return type == StorageType.MYSQL ? Integer.MIN_VALUE : super.streamingFetchSize();
+    }
+
+    @Override
+    public void open() throws SQLException {
+        ConfigManager config = plugin.getConfigManager();
+
+        // HikariCP guideline: about (cores * 2) + 1 connections, a fixed-size pool is fastest
+        this.poolSize = config.getMysqlPoolSize() > 0
+                ? config.getMysqlPoolSize()
+                : Runtime.getRuntime().availableProcessors() * 2 + 1;
+
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl("jdbc:" + (type == StorageType.MARIADB ? "mariadb" : "mysql") + "://"
+                + config.getMysqlHost() + ":" + config.getMysqlPort() + "/" + config.getMysqlDatabase());
+        hikariConfig.setUsername(config.getMysqlUsername());
+        hikariConfig.setPassword(config.getMysqlPassword());
+        hikariConfig.setPoolName("CoderaEconomy-" + type);
+        hikariConfig.setMaximumPoolSize(poolSize);
+        hikariConfig.setMinimumIdle(poolSize);
+        hikariConfig.setConnectionTimeout(10000);
+        hikariConfig.setMaxLifetime(1800000);
+        hikariConfig.setLeakDetectionThreshold(60000);
+
+        // Server-side prepared statements, cached per connection
+        hikariConfig.addDataSourceProperty("useServerPrepStmts", "true");
+        hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
+        hikariConfig.addDataSourceProperty("prepStmtCacheSize", "250");
+
+        if (type == StorageType.MARIADB) {
+            hikariConfig.addDataSourceProperty("useBulkStmts", "true");
+        } else {
+            hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            hikariConfig.addDataSourceProperty("rewriteBatchedStatements", "true");
+            hikariConfig.addDataSourceProperty("useLocalSessionState", "true");
+            hikariConfig.addDataSourceProperty("cacheResultSetMetadata", "true");
+            hikariConfig.addDataSourceProperty("cacheServerConfiguration", "true");
+            hikariConfig.addDataSourceProperty("elideSetAutoCommits", "true");
+            hikariConfig.addDataSourceProperty("maintainTimeStats", "false");
+        }
+
+        // Extra driver settings from config (SSL, timezone, ...) win over the defaults above
+        for (Map.Entry<String, String> property : config.getMysqlProperties().entrySet()) {
+            hikariConfig.addDataSourceProperty(property.getKey(), property.getValue());
+        }
+
+        this.dataSource = new HikariDataSource(hikariConfig);
+
+        createSchema();
+        prepareCurrencies();
+
+        plugin.getLogger().info("Connected to " + type + " at " + config.getMysqlHost() + ":" + config.getMysqlPort()
+                + " (pool size " + poolSize + ")");
+    }
+
+    private void createSchema() throws SQLException {
+        write(session -> {
+            try (Statement stmt = session.connection().createStatement()) {
+                stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS players (
+                        uuid BINARY(16) NOT NULL PRIMARY KEY,
+                        username VARCHAR(32) NOT NULL,
+                        last_updated BIGINT NOT NULL,
+                        INDEX idx_players_username (username)
+                    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+                    """);
+
+                stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS currencies (
+                        id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+                        name VARCHAR(64) NOT NULL UNIQUE,
+                        scale INT NOT NULL DEFAULT -1
+                    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+                    """);
+
+                stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS transaction_types (
+                        id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+                        name VARCHAR(64) NOT NULL UNIQUE
+                    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+                    """);
+
+                // DECIMAL holds both long minor units and doubles rounded to 8 places exactly;
+                // the secondary index carries the primary key in InnoDB, so it covers baltop
+                stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS balances (
+                        uuid BINARY(16) NOT NULL,
+                        currency_id INT NOT NULL,
+                        balance DECIMAL(38, 8) NOT NULL DEFAULT 0,
+                        PRIMARY KEY (uuid, currency_id),
+                        INDEX idx_balances_currency (currency_id, balance DESC)
+                    ) ENGINE=InnoDB
+                    """);
+
+                stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS transactions (
+                        id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+                        from_uuid BINARY(16) NULL,
+                        to_uuid BINARY(16) NOT NULL,
+                        currency_id INT NOT NULL,
+                        amount DOUBLE NOT NULL,
+                        type_id INT NOT NULL,
+                        timestamp BIGINT NOT NULL,
+                        INDEX idx_transactions_timestamp (timestamp)
+                    ) ENGINE=InnoDB
+                    """);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    @NotNull
+    public String getName() {
+        return type + " (pool size " + poolSize + ")";
+    }
+
+    // ═══════════════════ DIALECT ═══════════════════
+
+    /**
+     * MySQL 8.0.20+ deprecates VALUES(col) in ON DUPLICATE KEY UPDATE in favour of a row alias
+     * (8.0.19+); MariaDB has no row alias and keeps VALUES(col)
+     */
+    @Override
+    @NotNull
+    protected String upsert(@NotNull String table, @NotNull String[] columns,
+                            @NotNull String[] keys, @NotNull String... updates) {
+        boolean rowAlias = type == StorageType.MYSQL;
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                .append(" (").append(String.join(", ", columns)).append(") VALUES (")
+                .append("?, ".repeat(columns.length - 1)).append("?)")
+                .append(rowAlias ? " AS new" : "").append(" ON DUPLICATE KEY UPDATE ");
+
+        if (updates.length == 0) {
+            // No-op update instead of INSERT IGNORE, which would also hide real errors
+            return sql.append(keys[0]).append(" = ").append(keys[0]).toString();
+        }
+
+        for (int i = 0; i < updates.length; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            if (rowAlias) {
+                sql.append(updates[i]).append(" = new.").append(updates[i]);
+            } else {
+                sql.append(updates[i]).append(" = VALUES(").append(updates[i]).append(")");
+            }
+        }
+        return sql.toString();
+    }
+
+    @Override
+    protected double maxStoredAmount() {
+        return MAX_DECIMAL_AMOUNT;
+    }
+
+    /**
+     * Neither MySQL nor MariaDB support UPDATE ... RETURNING
+     */
+    @Override
+    protected boolean supportsUpdateReturning() {
+        return false;
+    }
+
+    // ═══════════════════ BACKUPS ═══════════════════
+
+    @Override
+    public boolean supportsBackups() {
+        return false;
+    }
+
+    @Override
+    public void backup(@NotNull File target) throws IOException {
+        throw new IOException(type + " databases cannot be copied to a file, use mysqldump or mariadb-dump");
+    }
+
+    @Override
+    public void close() {
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.close();
+        }
+        plugin.getLogger().info("Database connection pool closed");
+    }
+}
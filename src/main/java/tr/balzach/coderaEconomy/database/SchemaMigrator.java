@@ -0,0 +1,391 @@
+package tr.balzach.coderaEconomy.database;
+
+import org.jetbrains.annotations.NotNull;
+import tr.balzach.coderaEconomy.util.UuidUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Creates the database schema and upgrades older layouts.
+ * The schema version is stored in PRAGMA user_version.
+ *
+ * Version 1: TEXT uuids, currency and transaction type names on every row
+ * Version 2: 16-byte BLOB uuids, interned currency/type ids, WITHOUT ROWID balances
+ * Version 3: INTEGER balances and a per-currency scale, so balances can be stored as minor units
+ */
+public class SchemaMigrator {
+
+    public static final int CURRENT_VERSION = 3;
+
+    private static final int BATCH_SIZE = 1000;
+
+    // Index entries of a WITHOUT ROWID table carry the primary key, so this covers baltop (uuid included)
+    private static final String BALANCES_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_balances_currency ON balances(currency_id, balance DESC)";
+
+    private final Logger logger;
+
+    public SchemaMigrator(@NotNull Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Checks whether the database holds data in an older layout
+     */
+    public boolean needsMigration(@NotNull SqlSession session) throws SQLException {
+        return getVersion(session.connection()) < CURRENT_VERSION && tableExists(session.connection(), "balances");
+    }
+
+    /**
+     * Creates missing tables and migrates older layouts to the current version
+     */
+    public void migrate(@NotNull SqlSession session) throws SQLException {
+        Connection conn = session.connection();
+        int version = getVersion(conn);
+
+        if (version < 2 && tableExists(conn, "balances")) {
+            migrateFromV1(conn);
+            return;
+        }
+
+        if (version == 2) {
+            migrateToV3(conn);
+            return;
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            createSchema(stmt);
+            stmt.execute("PRAGMA user_version = " + CURRENT_VERSION);
+        }
+    }
+
+    private void createSchema(@NotNull Statement stmt) throws SQLException {
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS players (
+                uuid BLOB PRIMARY KEY NOT NULL,
+                username TEXT NOT NULL,
+                last_updated INTEGER NOT NULL
+            )
+            """);
+
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS currencies (
+                id INTEGER PRIMARY KEY,
+                name TEXT NOT NULL UNIQUE,
+                scale INTEGER NOT NULL DEFAULT -1
+            )
+            """);
+
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS transaction_types (
+                id INTEGER PRIMARY KEY,
+                name TEXT NOT NULL UNIQUE
+            )
+            """);
+
+        stmt.execute(balancesTable("balances"));
+
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS transactions (
+                id INTEGER PRIMARY KEY,
+                from_uuid BLOB,
+                to_uuid BLOB NOT NULL,
+                currency_id INTEGER NOT NULL,
+                amount REAL NOT NULL,
+                type_id INTEGER NOT NULL,
+                timestamp INTEGER NOT NULL,
+                FOREIGN KEY(from_uuid) REFERENCES players(uuid),
+                FOREIGN KEY(to_uuid) REFERENCES players(uuid)
+            )
+            """);
+
+        stmt.execute(BALANCES_INDEX);
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_transactions_timestamp ON transactions(timestamp DESC)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_players_username ON players(username)");
+    }
+
+    /**
+     * Balances are INTEGER so minor units stay exact; fractional doubles are kept as REAL values.
+     * scale in currencies tells which of the two a currency uses (-1 = double major units).
+     */
+    @NotNull
+    private static String balancesTable(@NotNull String name) {
+        return """
+            CREATE TABLE IF NOT EXISTS %s (
+                uuid BLOB NOT NULL,
+                currency_id INTEGER NOT NULL,
+                balance INTEGER NOT NULL DEFAULT 0,
+                PRIMARY KEY(uuid, currency_id),
+                FOREIGN KEY(uuid) REFERENCES players(uuid) ON DELETE CASCADE,
+                FOREIGN KEY(currency_id) REFERENCES currencies(id)
+            ) WITHOUT ROWID
+            """.formatted(name);
+    }
+
+    // ═══════════════════ VERSION 1 -> CURRENT ═══════════════════
+
+    private void migrateFromV1(@NotNull Connection conn) throws SQLException {
+        logger.info("Migrating database to schema v" + CURRENT_VERSION + " (binary uuids, interned ids)...");
+        long start = System.currentTimeMillis();
+
+        // Old and new tables reference each other's names while both exist
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA foreign_keys = OFF");
+        }
+
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP INDEX IF EXISTS idx_balances_currency");
+            stmt.execute("DROP INDEX IF EXISTS idx_transactions_timestamp");
+            stmt.execute("DROP INDEX IF EXISTS idx_players_username");
+            stmt.execute("ALTER TABLE players RENAME TO players_v1");
+            stmt.execute("ALTER TABLE balances RENAME TO balances_v1");
+            stmt.execute("ALTER TABLE transactions RENAME TO transactions_v1");
+
+            createSchema(stmt);
+
+            int players = copyPlayers(conn);
+            Map<String, Integer> currencyIds = internNames(conn,
+                    "SELECT currency FROM balances_v1 UNION SELECT currency FROM transactions_v1", "currencies");
+            Map<String, Integer> typeIds = internNames(conn,
+                    "SELECT DISTINCT type FROM transactions_v1", "transaction_types");
+            int balances = copyBalances(conn, currencyIds);
+            int transactions = copyTransactions(conn, currencyIds, typeIds);
+
+            stmt.execute("DROP TABLE transactions_v1");
+            stmt.execute("DROP TABLE balances_v1");
+            stmt.execute("DROP TABLE players_v1");
+            stmt.execute("PRAGMA user_version = " + CURRENT_VERSION);
+
+            conn.commit();
+
+            logger.info("Migrated " + players + " players, " + balances + " balances and "
+                    + transactions + " transactions in " + (System.currentTimeMillis() - start) + "ms");
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA foreign_keys = ON");
+            }
+        }
+
+        // Reclaim the space of the old tables
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("VACUUM");
+        }
+    }
+
+    // ═══════════════════ VERSION 2 -> 3 ═══════════════════
+
+    private void migrateToV3(@NotNull Connection conn) throws SQLException {
+        logger.info("Migrating database to schema v3 (integer balances, currency scale)...");
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA foreign_keys = OFF");
+        }
+
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            // Existing balances are doubles in major units, which is what scale -1 means
+            stmt.execute("ALTER TABLE currencies ADD COLUMN scale INTEGER NOT NULL DEFAULT -1");
+
+            stmt.execute(balancesTable("balances_v3"));
+            stmt.execute("INSERT INTO balances_v3 (uuid, currency_id, balance) SELECT uuid, currency_id, balance FROM balances");
+            stmt.execute("DROP TABLE balances");
+            stmt.execute("ALTER TABLE balances_v3 RENAME TO balances");
+            stmt.execute(BALANCES_INDEX);
+            stmt.execute("PRAGMA user_version = 3");
+
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA foreign_keys = ON");
+            }
+        }
+    }
+
+    private int copyPlayers(@NotNull Connection conn) throws SQLException {
+        String insert = "INSERT OR IGNORE INTO players (uuid, username, last_updated) VALUES (?, ?, ?)";
+        int copied = 0;
+        int skipped = 0;
+
+        try (Statement select = conn.createStatement();
+             ResultSet rs = select.executeQuery("SELECT uuid, username, last_updated FROM players_v1");
+             PreparedStatement ps = conn.prepareStatement(insert)) {
+            while (rs.next()) {
+                UUID uuid = parseUuid(rs.getString("uuid"));
+                if (uuid == null) {
+                    skipped++;
+                    continue;
+                }
+
+                ps.setBytes(1, UuidUtil.toBytes(uuid));
+                ps.setString(2, rs.getString("username"));
+                ps.setLong(3, rs.getLong("last_updated"));
+                ps.addBatch();
+
+                if (++copied % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+
+        logSkipped("players", skipped);
+        return copied;
+    }
+
+    @NotNull
+    private Map<String, Integer> internNames(@NotNull Connection conn, @NotNull String selectNames,
+                                             @NotNull String table) throws SQLException {
+        Map<String, Integer> ids = new HashMap<>();
+
+        try (Statement select = conn.createStatement();
+             ResultSet rs = select.executeQuery(selectNames);
+             PreparedStatement ps = conn.prepareStatement("INSERT INTO " + table + " (id, name) VALUES (?, ?)")) {
+            while (rs.next()) {
+                String name = rs.getString(1);
+                if (name == null || ids.containsKey(name)) {
+                    continue;
+                }
+
+                int id = ids.size() + 1;
+                ids.put(name, id);
+                ps.setInt(1, id);
+                ps.setString(2, name);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        return ids;
+    }
+
+    private int copyBalances(@NotNull Connection conn, @NotNull Map<String, Integer> currencyIds) throws SQLException {
+        String insert = "INSERT OR REPLACE INTO balances (uuid, currency_id, balance) VALUES (?, ?, ?)";
+        int copied = 0;
+        int skipped = 0;
+
+        try (Statement select = conn.createStatement();
+             ResultSet rs = select.executeQuery("SELECT uuid, currency, balance FROM balances_v1");
+             PreparedStatement ps = conn.prepareStatement(insert)) {
+            while (rs.next()) {
+                UUID uuid = parseUuid(rs.getString("uuid"));
+                if (uuid == null) {
+                    skipped++;
+                    continue;
+                }
+
+                ps.setBytes(1, UuidUtil.toBytes(uuid));
+                ps.setInt(2, currencyIds.get(rs.getString("currency")));
+                ps.setDouble(3, rs.getDouble("balance"));
+                ps.addBatch();
+
+                if (++copied % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+
+        logSkipped("balances", skipped);
+        return copied;
+    }
+
+    private int copyTransactions(@NotNull Connection conn, @NotNull Map<String, Integer> currencyIds,
+                                 @NotNull Map<String, Integer> typeIds) throws SQLException {
+        String insert = """
+            INSERT INTO transactions (id, from_uuid, to_uuid, currency_id, amount, type_id, timestamp)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+        int copied = 0;
+        int skipped = 0;
+
+        try (Statement select = conn.createStatement();
+             ResultSet rs = select.executeQuery(
+                     "SELECT id, from_uuid, to_uuid, currency, amount, type, timestamp FROM transactions_v1 ORDER BY id");
+             PreparedStatement ps = conn.prepareStatement(insert)) {
+            while (rs.next()) {
+                UUID to = parseUuid(rs.getString("to_uuid"));
+                String fromString = rs.getString("from_uuid");
+                UUID from = fromString != null ? parseUuid(fromString) : null;
+                if (to == null || (fromString != null && from == null)) {
+                    skipped++;
+                    continue;
+                }
+
+                ps.setLong(1, rs.getLong("id"));
+                if (from != null) {
+                    ps.setBytes(2, UuidUtil.toBytes(from));
+                } else {
+                    ps.setNull(2, Types.BLOB);
+                }
+                ps.setBytes(3, UuidUtil.toBytes(to));
+                ps.setInt(4, currencyIds.get(rs.getString("currency")));
+                ps.setDouble(5, rs.getDouble("amount"));
+                ps.setInt(6, typeIds.get(rs.getString("type")));
+                ps.setLong(7, rs.getLong("timestamp"));
+                ps.addBatch();
+
+                if (++copied % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+
+        logSkipped("transactions", skipped);
+        return copied;
+    }
+
+    // ═══════════════════ HELPERS ═══════════════════
+
+    private int getVersion(@NotNull Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private boolean tableExists(@NotNull Connection conn, @NotNull String table) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private UUID parseUuid(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void logSkipped(@NotNull String what, int skipped) {
+        if (skipped > 0) {
+            logger.warning("Skipped " + skipped + " " + what + " with an invalid uuid during migration");
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package tr.balzach.coderaEconomy.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs every write on one long-lived connection owned by a dedicated thread.
+ *
+ * SQLite only allows one writer at a time, so funnelling writes through a
+ * single thread replaces lock contention (SQLITE_BUSY, pool timeouts) with a
+ * plain FIFO queue. Prepared statements stay cached on the writer session.
+ */
+public class SingleWriter {
+
+    private final Logger logger;
+    private final SqlSession session;
+    private final ExecutorService executor;
+    private final SqlMetrics metrics = new SqlMetrics();
+
+    private volatile Thread writerThread;
+
+    public SingleWriter(@NotNull Logger logger, @NotNull Connection connection) {
+        this.logger = logger;
+        this.session = new SqlSession(connection);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CoderaEconomy-Writer");
+            thread.setDaemon(true);
+            writerThread = thread;
+            return thread;
+        });
+    }
+
+    /**
+     * Runs the work on the writer thread and waits for its result
+     */
+    public <T> T execute(@NotNull SqlWork<T> work) throws SQLException {
+        // Nested writes already run on the writer thread
+        if (Thread.currentThread() == writerThread) {
+            return work.run(session);
+        }
+
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> run(work, submitted));
+        } catch (RejectedExecutionException e) {
+            throw new SQLException("Database writer is closed", e);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the database writer", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SQLException("Database write failed", e.getCause());
+        }
+    }
+
+    private <T> T run(@NotNull SqlWork<T> work, long submitted) throws SQLException {
+        long started = System.nanoTime();
+        boolean success = false;
+
+        try {
+            T result = work.run(session);
+            success = true;
+            return result;
+        } finally {
+            if (!success) {
+                session.reset();
+            }
+            metrics.record(started - submitted, System.nanoTime() - started, success);
+        }
+    }
+
+    @NotNull
+    public SqlMetrics.Snapshot getMetrics() {
+        return metrics.snapshot();
+    }
+
+    /**
+     * Finishes queued writes, then closes the cached statements and the connection
+     */
+    public void close() {
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warning("Database writer did not finish in time, pending writes may be lost");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            session.close();
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Failed to close writer connection", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package tr.balzach.coderaEconomy.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Queue-wait and execution-time counters for one side (reads or writes) of the storage.
+ * Queue wait is the time spent waiting for the writer thread or a pooled connection.
+ */
+public class SqlMetrics {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder execNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxExecNanos = new LongAccumulator(Math::max, 0);
+
+    public void record(long waitNanos, long execNanos, boolean success) {
+        count.increment();
+        if (!success) {
+            failures.increment();
+        }
+        this.waitNanos.add(waitNanos);
+        this.execNanos.add(execNanos);
+        maxWaitNanos.accumulate(waitNanos);
+        maxExecNanos.accumulate(execNanos);
+    }
+
+    @NotNull
+    public Snapshot snapshot() {
+        return new Snapshot(
+                count.sum(),
+                failures.sum(),
+                waitNanos.sum(),
+                execNanos.sum(),
+                maxWaitNanos.get(),
+                maxExecNanos.get()
+        );
+    }
+
+    public record Snapshot(long count, long failures, long totalWaitNanos, long totalExecNanos,
+                           long maxWaitNanos, long maxExecNanos) {
+
+        public double averageWaitMillis() {
+            return count == 0 ? 0 : (double) totalWaitNanos / count / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        public double averageExecMillis() {
+            return count == 0 ? 0 : (double) totalExecNanos / count / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        @Override
+        public String toString() {
+            double nanosPerMilli = TimeUnit.MILLISECONDS.toNanos(1);
+            return String.format("ops=%d, failed=%d, wait avg=%.2fms max=%.2fms, exec avg=%.2fms max=%.2fms",
+                    count, failures, averageWaitMillis(), maxWaitNanos / nanosPerMilli,
+                    averageExecMillis(), maxExecNanos / nanosPerMilli);
+        }
+    }
+}
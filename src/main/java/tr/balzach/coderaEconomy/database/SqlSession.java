@@ -0,0 +1,73 @@
+package tr.balzach.coderaEconomy.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A connection together with its prepared statements.
+ *
+ * Statements returned by {@link #prepare(String)} are owned by the session and
+ * must not be closed by the caller. Pooled sessions close them when the
+ * connection is returned, the writer session keeps them for its whole lifetime.
+ */
+public class SqlSession implements AutoCloseable {
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+    public SqlSession(@NotNull Connection connection) {
+        this.connection = connection;
+    }
+
+    @NotNull
+    public Connection connection() {
+        return connection;
+    }
+
+    /**
+     * Gets a cached prepared statement for the query, preparing it on first use
+     */
+    @NotNull
+    public PreparedStatement prepare(@NotNull String sql) throws SQLException {
+        PreparedStatement ps = statements.get(sql);
+        if (ps == null || ps.isClosed()) {
+            ps = connection.prepareStatement(sql);
+            statements.put(sql, ps);
+        }
+        return ps;
+    }
+
+    /**
+     * Drops batches and parameters left behind by a failed operation
+     */
+    public void reset() {
+        for (PreparedStatement ps : statements.values()) {
+            try {
+                ps.clearBatch();
+                ps.clearParameters();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    public int getStatementCount() {
+        return statements.size();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        for (PreparedStatement ps : statements.values()) {
+            try {
+                ps.close();
+            } catch (SQLException ignored) {
+            }
+        }
+        statements.clear();
+        connection.close();
+    }
+}
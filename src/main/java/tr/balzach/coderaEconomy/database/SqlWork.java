@@ -0,0 +1,13 @@
+package tr.balzach.coderaEconomy.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.SQLException;
+
+/**
+ * Database work that runs on a {@link SqlSession}
+ */
+@FunctionalInterface
+public interface SqlWork<T> {
+    T run(@NotNull SqlSession session) throws SQLException;
+}
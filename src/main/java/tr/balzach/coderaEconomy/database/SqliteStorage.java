@@ -0,0 +1,230 @@
+package tr.balzach.coderaEconomy.database;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.jetbrains.annotations.NotNull;
+import tr.balzach.coderaEconomy.CoderaEconomy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Level;
+
+/**
+ * SQLite storage in WAL mode, either fully pooled or with a single writer thread
+ */
+public class SqliteStorage extends AbstractJdbcStorage {
+
+    private final File databaseFile;
+    private final StorageMode storageMode;
+
+    // SINGLE_WRITER only: all writes go through this connection
+    private SingleWriter writer;
+
+    public SqliteStorage(@NotNull CoderaEconomy plugin) {
+        super(plugin);
+        this.databaseFile = new File(plugin.getDataFolder(), "economy.db");
+        this.storageMode = plugin.getConfigManager().getStorageMode();
+    }
+
+    @Override
+    public void open() throws SQLException {
+        if (!plugin.getDataFolder().exists() && !plugin.getDataFolder().mkdirs()) {
+            throw new SQLException("Failed to create plugin folder");
+        }
+
+        String jdbcUrl = "jdbc:sqlite:" + databaseFile.getPath();
+
+        if (storageMode == StorageMode.SINGLE_WRITER) {
+            // One long-lived writer connection, readers get their own pool below
+            this.writer = new SingleWriter(plugin.getLogger(), DriverManager.getConnection(jdbcUrl));
+        } else {
+            HikariConfig hikariConfig = new HikariConfig();
+            hikariConfig.setJdbcUrl(jdbcUrl);
+            hikariConfig.setPoolName("CoderaEconomy");
+
+            // OPTIMIZED: Better pool settings
+            hikariConfig.setMaximumPoolSize(10);
+            hikariConfig.setMinimumIdle(2);
+            hikariConfig.setConnectionTimeout(30000);
+            hikariConfig.setIdleTimeout(600000);
+            hikariConfig.setMaxLifetime(1800000);
+            hikariConfig.setLeakDetectionThreshold(60000);
+
+            this.dataSource = new HikariDataSource(hikariConfig);
+        }
+
+        // IMPORTANT: WAL mode setup
+        // economy.db-wal and economy.db-shm files are NORMAL for WAL mode
+        // They improve performance and crash recovery
+        write(session -> {
+            try (Statement stmt = session.connection().createStatement()) {
+                stmt.execute("PRAGMA foreign_keys = ON");
+                stmt.execute("PRAGMA journal_mode = WAL"); // WAL creates .db-wal and .db-shm files
+                stmt.execute("PRAGMA synchronous = NORMAL");
+                stmt.execute("PRAGMA temp_store = MEMORY");
+                stmt.execute("PRAGMA mmap_size = 30000000000");
+                stmt.execute("PRAGMA page_size = 4096");
+                stmt.execute("PRAGMA cache_size = -64000"); // 64MB cache
+            }
+            return null;
+        });
+
+        SchemaMigrator migrator = new SchemaMigrator(plugin.getLogger());
+        if (write(migrator::needsMigration)) {
+            backupBeforeMigration();
+        }
+
+        write(session -> {
+            migrator.migrate(session);
+            return null;
+        });
+
+        prepareCurrencies();
+
+        if (storageMode == StorageMode.SINGLE_WRITER) {
+            // Readers never take the write lock, so WAL lets them run next to the writer
+            HikariConfig readConfig = new HikariConfig();
+            readConfig.setJdbcUrl(jdbcUrl);
+            readConfig.setPoolName("CoderaEconomy-Read");
+            readConfig.setMaximumPoolSize(Math.max(1, plugin.getConfigManager().getReadPoolSize()));
+            readConfig.setMinimumIdle(1);
+            readConfig.setConnectionTimeout(30000);
+            readConfig.setIdleTimeout(600000);
+            readConfig.setMaxLifetime(1800000);
+            readConfig.setConnectionInitSql("PRAGMA query_only = ON");
+
+            this.dataSource = new HikariDataSource(readConfig);
+        }
+
+        plugin.getLogger().info("Database initialized with WAL mode (economy.db-wal and .db-shm are normal)");
+    }
+
+    @Override
+    @NotNull
+    public String getName() {
+        return "SQLite (" + storageMode + ")";
+    }
+
+    // ═══════════════════ DIALECT ═══════════════════
+
+    @Override
+    @NotNull
+    protected String upsert(@NotNull String table, @NotNull String[] columns,
+                            @NotNull String[] keys, @NotNull String... updates) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                .append(" (").append(String.join(", ", columns)).append(") VALUES (")
+                .append("?, ".repeat(columns.length - 1)).append("?) ON CONFLICT(")
+                .append(String.join(", ", keys)).append(") DO ");
+
+        if (updates.length == 0) {
+            return sql.append("NOTHING").toString();
+        }
+
+        sql.append("UPDATE SET ");
+        for (int i = 0; i < updates.length; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(updates[i]).append(" = excluded.").append(updates[i]);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * RETURNING needs SQLite 3.35 or newer
+     */
+    @Override
+    protected boolean supportsUpdateReturning() {
+        return true;
+    }
+
+    // ═══════════════════ SESSIONS ═══════════════════
+
+    /**
+     * Runs work that modifies the database, on the writer thread in SINGLE_WRITER mode
+     */
+    @Override
+    protected <T> T write(@NotNull SqlWork<T> work) throws SQLException {
+        if (writer != null) {
+            return writer.execute(work);
+        }
+        return super.write(work);
+    }
+
+    @Override
+    @NotNull
+    public SqlMetrics.Snapshot getWriteMetrics() {
+        return writer != null ? writer.getMetrics() : super.getWriteMetrics();
+    }
+
+    // ═══════════════════ BACKUPS ═══════════════════
+
+    @Override
+    public boolean supportsBackups() {
+        return true;
+    }
+
+    @Override
+    public void backup(@NotNull File target) throws SQLException, IOException {
+        // IMPORTANT: Checkpoint WAL before backup
+        checkpoint();
+        Files.copy(databaseFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Copies the database aside before it is migrated to a new schema
+     */
+    private void backupBeforeMigration() {
+        try {
+            File backupFolder = new File(plugin.getDataFolder(), "backups");
+            if (!backupFolder.exists() && !backupFolder.mkdirs()) {
+                throw new IOException("Failed to create backup folder");
+            }
+
+            File backupFile = new File(backupFolder, "economy_pre-v" + SchemaMigrator.CURRENT_VERSION + ".db");
+            backup(backupFile);
+            plugin.getLogger().info("Database backup created before migration: " + backupFile.getName());
+        } catch (IOException | SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to back up database before migration", e);
+        }
+    }
+
+    private void checkpoint() throws SQLException {
+        write(session -> {
+            try (Statement stmt = session.connection().createStatement()) {
+                stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void close() {
+        try {
+            // IMPORTANT: Checkpoint and close WAL properly
+            write(session -> {
+                try (Statement stmt = session.connection().createStatement()) {
+                    stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+                    stmt.execute("PRAGMA optimize");
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to checkpoint database", e);
+        }
+
+        if (writer != null) {
+            writer.close();
+        }
+
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.close();
+        }
+        plugin.getLogger().info("Database connection pool closed (WAL checkpointed)");
+    }
+}
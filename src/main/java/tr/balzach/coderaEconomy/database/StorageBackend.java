@@ -0,0 +1,181 @@
+package tr.balzach.coderaEconomy.database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import tr.balzach.coderaEconomy.currency.Currency;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Persistent storage for players, balances and transaction history.
+ *
+ * Implementations only talk to the database; caching, write-behind and the
+ * async transaction log are handled by {@link DatabaseManager}. All amounts
+ * are major units (12.34), fixed-point backends convert internally.
+ */
+public interface StorageBackend {
+
+    /**
+     * Connects and creates or migrates the schema
+     */
+    void open() throws SQLException;
+
+    void close();
+
+    /**
+     * Short description for logs, e.g. "SQLite (POOLED)"
+     */
+    @NotNull
+    String getName();
+
+    // ═══════════════════ PLAYERS ═══════════════════
+
+    void savePlayer(@NotNull UUID uuid, @NotNull String username) throws SQLException;
+
+    boolean hasPlayer(@NotNull UUID uuid) throws SQLException;
+
+    int countPlayers() throws SQLException;
+
+    @NotNull
+    List<UUID> getPlayerUuids() throws SQLException;
+
+    /**
+     * Gets the stored username of every player
+     */
+    @NotNull
+    Map<UUID, String> getPlayerNames() throws SQLException;
+
+    /**
+     * Creates or renames a player and seeds the starter balance of every missing
+     * currency, with STARTER (new player) or NEW_CURRENCY audit rows, in one transaction
+     */
+    @NotNull
+    DatabaseManager.AccountProvision provisionAccount(@NotNull UUID uuid, @NotNull String username,
+                                                      @NotNull Collection<Currency> currencies) throws SQLException;
+
+    // ═══════════════════ BALANCES ═══════════════════
+
+    /**
+     * @return the stored balance, or null if the player has none in this currency
+     */
+    @Nullable
+    Double loadBalance(@NotNull UUID uuid, @NotNull String currencyId) throws SQLException;
+
+    /**
+     * Loads the balances of many players in one currency; players without one are left out
+     */
+    @NotNull
+    Map<UUID, Double> loadBalances(@NotNull Collection<UUID> uuids, @NotNull String currencyId) throws SQLException;
+
+    /**
+     * Loads every balance of a player, by currency id
+     */
+    @NotNull
+    Map<String, Double> loadAccount(@NotNull UUID uuid) throws SQLException;
+
+    /**
+     * Inserts or overwrites a balance, creating the player if needed
+     */
+    boolean saveBalance(@NotNull UUID uuid, @NotNull String username, @NotNull String currencyId, double amount) throws SQLException;
+
+    /**
+     * Writes many balances (and their players) in one transaction
+     */
+    void saveBalances(@NotNull Map<WriteBehindLedger.BalanceKey, WriteBehindLedger.PendingWrite> balances) throws SQLException;
+
+    /**
+     * Atomically adds a delta within the currency's limits.
+     * Missing balances are seeded with the starter balance for deposits.
+     *
+     * @return the new balance, or null if the balance is missing or the limits would be exceeded
+     */
+    @Nullable
+    Double applyDelta(@NotNull UUID uuid, @NotNull String username, @NotNull Currency currency, double delta) throws SQLException;
+
+    /**
+     * Moves an amount between two players in one transaction
+     *
+     * @param record written in the same transaction, or null if the caller logs it itself
+     * @return the new sender and receiver balances, or null if the transfer was rejected
+     */
+    @Nullable
+    double[] transfer(@NotNull UUID fromUuid, @NotNull String fromUsername,
+                      @NotNull UUID toUuid, @NotNull String toUsername,
+                      @NotNull Currency currency, double amount,
+                      @Nullable TransactionLogAppender.TransactionRecord record) throws SQLException;
+
+    /**
+     * Applies an operation to every player, one transaction per chunk of players.
+     * Audit rows are written in the same transactions.
+     *
+     * @param chunkLock held while each chunk commits and its listener runs, but not in between
+     * @param listener  called after each chunk commits, with the new balances of that chunk
+     */
+    @NotNull
+    BulkOperation.Result applyBulk(@NotNull BulkOperation operation, int chunkSize, @NotNull Lock chunkLock,
+                                   @NotNull BulkOperation.Listener listener) throws SQLException;
+
+    /**
+     * Gets a leaderboard page: highest balance first, equal balances by uuid
+     */
+    @NotNull
+    List<DatabaseManager.BalanceEntry> getTopBalances(@NotNull String currencyId, int limit, int offset) throws SQLException;
+
+    /**
+     * Passes every balance of a currency to the consumer as it is read, in no
+     * particular order, so the whole currency is never held in memory at once
+     */
+    void forEachBalance(@NotNull String currencyId, @NotNull Consumer<DatabaseManager.BalanceEntry> consumer) throws SQLException;
+
+    /**
+     * Counts the balances of a currency, i.e. the players on its leaderboard
+     */
+    int countBalances(@NotNull String currencyId) throws SQLException;
+
+    /**
+     * Counts the balances ranked above a player's in {@link #getTopBalances} order:
+     * higher balances, and equal ones with a lower uuid (an index range count)
+     */
+    int countHigherBalances(@NotNull String currencyId, double balance, @NotNull UUID uuid) throws SQLException;
+
+    /**
+     * Rounds an amount to what the storage holds exactly, NaN if it does not fit
+     */
+    double normalize(@NotNull String currencyId, double amount);
+
+    /**
+     * Adds two amounts the way the storage would, NaN on overflow
+     */
+    double add(@NotNull String currencyId, double a, double b);
+
+    boolean isFixedPoint();
+
+    // ═══════════════════ TRANSACTIONS ═══════════════════
+
+    void writeTransactions(@NotNull List<TransactionLogAppender.TransactionRecord> records) throws SQLException;
+
+    // ═══════════════════ BACKUPS ═══════════════════
+
+    /**
+     * Whether {@link #backup(File)} can copy the database to a file
+     */
+    boolean supportsBackups();
+
+    void backup(@NotNull File target) throws SQLException, IOException;
+
+    // ═══════════════════ METRICS ═══════════════════
+
+    @NotNull
+    SqlMetrics.Snapshot getReadMetrics();
+
+    @NotNull
+    SqlMetrics.Snapshot getWriteMetrics();
+}
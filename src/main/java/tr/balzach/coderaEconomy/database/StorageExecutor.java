@@ -0,0 +1,196 @@
+package tr.balzach.coderaEconomy.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Executor for blocking storage work, kept apart from the common ForkJoinPool
+ * and the Bukkit scheduler that other plugins share.
+ *
+ * Tasks run on a fixed pool of platform threads or, on Java 21+, on virtual
+ * threads. Either way a permit bounds how many run at once (the database pool
+ * is the real limit) and a capacity bounds how many may wait; tasks beyond
+ * that are rejected instead of piling up.
+ *
+ * Long-running tasks (bulk operations, loading the leaderboard index) run
+ * many short transactions for minutes. Holding a permit for all of that would
+ * take a slot from payments and joins, so they get their own threads outside
+ * the permits; each of their statements still waits for a pooled connection.
+ * They are counted in the stats like every other task.
+ */
+public class StorageExecutor implements Executor {
+
+    private final Logger logger;
+    private final ExecutorService delegate;
+    private final ExecutorService longRunning;
+    private final ExecutorType type;
+    private final int concurrency;
+    private final int queueCapacity;
+    private final Semaphore permits;
+
+    // Submitted and not finished, running ones included
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger activeLongRunning = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public StorageExecutor(@NotNull Logger logger, @NotNull ExecutorType type, int concurrency, int queueCapacity) {
+        this.logger = logger;
+        this.concurrency = Math.max(1, concurrency);
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.permits = new Semaphore(this.concurrency);
+
+        ExecutorService virtual = type == ExecutorType.VIRTUAL ? newVirtualExecutor(logger) : null;
+        if (virtual != null) {
+            this.delegate = virtual;
+            this.type = ExecutorType.VIRTUAL;
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.delegate = Executors.newFixedThreadPool(this.concurrency, runnable -> {
+                Thread thread = new Thread(runnable, "CoderaEconomy-Storage-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.type = ExecutorType.PLATFORM;
+        }
+
+        AtomicInteger longThreadCount = new AtomicInteger();
+        this.longRunning = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "CoderaEconomy-Storage-Long-" + longThreadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() through reflection, so the plugin still runs on Java 17
+     */
+    private static ExecutorService newVirtualExecutor(@NotNull Logger logger) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warning("Virtual threads need Java 21+, using platform threads for storage");
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(@NotNull Runnable task) {
+        if (pending.incrementAndGet() > concurrency + queueCapacity) {
+            pending.decrementAndGet();
+            rejected.increment();
+            throw new RejectedExecutionException("Storage executor is full (" + queueCapacity + " tasks waiting)");
+        }
+
+        try {
+            delegate.execute(() -> run(task));
+        } catch (RejectedExecutionException e) {
+            // Shut down
+            pending.decrementAndGet();
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    private void run(@NotNull Runnable task) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            pending.decrementAndGet();
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        active.incrementAndGet();
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Storage task failed", e);
+        } finally {
+            active.decrementAndGet();
+            pending.decrementAndGet();
+            completed.increment();
+            permits.release();
+        }
+    }
+
+    /**
+     * Runs a long task on its own thread, without a permit and without waiting in the queue
+     */
+    public void executeLongRunning(@NotNull Runnable task) {
+        try {
+            longRunning.execute(() -> {
+                activeLongRunning.incrementAndGet();
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    logger.log(Level.SEVERE, "Long-running storage task failed", e);
+                } finally {
+                    activeLongRunning.decrementAndGet();
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shut down
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Stops accepting tasks and waits for the submitted ones, long-running ones included
+     *
+     * @return true if every task finished in time
+     */
+    public boolean shutdown(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        delegate.shutdown();
+        longRunning.shutdown();
+
+        boolean finished = delegate.awaitTermination(timeout, unit)
+                && longRunning.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        if (!finished) {
+            delegate.shutdownNow();
+            longRunning.shutdownNow();
+        }
+        return finished;
+    }
+
+    @NotNull
+    public ExecutorType getType() {
+        return type;
+    }
+
+    @NotNull
+    public Stats getStats() {
+        int running = active.get();
+        return new Stats(type, concurrency, running, Math.max(0, pending.get() - running), queueCapacity,
+                activeLongRunning.get(), completed.sum(), rejected.sum());
+    }
+
+    /**
+     * @param longRunning long-running tasks in progress, not counted in active
+     */
+    public record Stats(@NotNull ExecutorType type, int concurrency, int active, int queued, int queueCapacity,
+                        int longRunning, long completed, long rejected) {
+
+        @Override
+        public String toString() {
+            return String.format("%s, active=%d/%d, queued=%d/%d, long-running=%d, completed=%d, rejected=%d",
+                    type, active, concurrency, queued, queueCapacity, longRunning, completed, rejected);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package tr.balzach.coderaEconomy.database;
+
+/**
+ * How the SQLite database is accessed
+ */
+public enum StorageMode {
+
+    /** Every operation borrows a connection from one shared pool */
+    POOLED,
+
+    /** One writer connection on a dedicated thread plus a read-only pool */
+    SINGLE_WRITER
+}
@@ -0,0 +1,16 @@
+package tr.balzach.coderaEconomy.database;
+
+/**
+ * Database the economy data is stored in
+ */
+public enum StorageType {
+
+    /** Local economy.db file */
+    SQLITE,
+
+    /** MySQL server, MySQL Connector/J */
+    MYSQL,
+
+    /** MariaDB server, MariaDB Connector/J */
+    MARIADB
+}
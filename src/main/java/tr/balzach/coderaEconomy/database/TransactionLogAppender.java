@@ -0,0 +1,354 @@
+package tr.balzach.coderaEconomy.database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Asynchronous, group-committed appender for the transactions table.
+ *
+ * Records are queued in a bounded ring buffer and written by a single thread
+ * in one batch every flush interval or as soon as a full batch is available.
+ * When the buffer is full, callers wait briefly and finally try to write their
+ * record themselves, once and without retries (the caller is usually the server
+ * thread), which slows producers down instead of dropping audit rows.
+ *
+ * Failed writes are retried with backoff. A batch that keeps failing is split
+ * so one bad row cannot take the rest of the batch with it, and records that
+ * fail because the database is unreachable are held and retried until it is
+ * back. Only a single row the database rejects on its own is given up on.
+ */
+public class TransactionLogAppender {
+
+    private static final long OFFER_TIMEOUT_MS = 50;
+    private static final long BACKPRESSURE_LOG_INTERVAL_MS = 60000;
+
+    // Attempts per batch before it is split or held, the delay doubles after each
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 100;
+    private static final long MAX_HELD_RETRY_DELAY_MS = 30000;
+
+    private final Logger logger;
+    private final BatchWriter writer;
+    private final BlockingQueue<TransactionRecord> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong backpressureEvents = new AtomicLong();
+    private final AtomicLong lastBackpressureLog = new AtomicLong();
+
+    // Records that failed because the database was unreachable or on a caller's thread, retried by the writer thread
+    private final List<TransactionRecord> held = new ArrayList<>();
+    private long heldRetryDelayMs;
+    private long nextHeldRetry = System.nanoTime();
+
+    public TransactionLogAppender(@NotNull Logger logger, @NotNull BatchWriter writer,
+                                  int queueCapacity, int batchSize, long flushIntervalMs) {
+        this.logger = logger;
+        this.writer = writer;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+
+        this.thread = new Thread(this::run, "CoderaEconomy-TransactionLog");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a transaction record. Blocks briefly when the buffer is full and
+     * tries to write the record on the calling thread if it is still full afterwards;
+     * if that fails, the record is held for the writer thread to retry.
+     */
+    public void append(@NotNull TransactionRecord record) {
+        appended.incrementAndGet();
+
+        try {
+            if (running && queue.offer(record, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Closed: no writer thread is left to retry, so this is the only chance
+        if (!running) {
+            write(List.of(record));
+            return;
+        }
+
+        // Backpressure: the buffer is full, write synchronously
+        backpressureEvents.incrementAndGet();
+        logBackpressure();
+        writeOnce(record);
+    }
+
+    /**
+     * One attempt without sleeping, so a failing database costs the caller at most one connection timeout;
+     * the writer thread retries the record with backoff. While records are held the database is known to be
+     * unreachable and is not tried at all.
+     */
+    private void writeOnce(@NotNull TransactionRecord record) {
+        synchronized (held) {
+            if (!held.isEmpty()) {
+                held.add(record);
+                return;
+            }
+        }
+
+        if (tryWrite(List.of(record), 1) != null) {
+            hold(List.of(record));
+        }
+    }
+
+    private void run() {
+        List<TransactionRecord> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            retryHeld();
+
+            try {
+                TransactionRecord first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+
+                // Group commit: wait for a full batch or the end of the interval
+                while (batch.size() < batchSize && running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+
+                    TransactionRecord next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch, splitting it when some of its rows are rejected
+     *
+     * @return false if the database was unreachable and the records were held for a later retry
+     */
+    private boolean write(@NotNull List<TransactionRecord> batch) {
+        return write(batch, MAX_ATTEMPTS);
+    }
+
+    private boolean write(@NotNull List<TransactionRecord> batch, int attempts) {
+        SQLException error = tryWrite(batch, attempts);
+        if (error == null) {
+            return true;
+        }
+
+        if (isConnectionError(error)) {
+            hold(batch);
+            logger.log(Level.WARNING, "Database unreachable, holding " + batch.size()
+                    + " transaction records for retry: " + error.getMessage());
+            return false;
+        }
+
+        if (batch.size() == 1) {
+            failed.incrementAndGet();
+            logger.log(Level.SEVERE, "Failed to write transaction record " + batch.get(0), error);
+            return true;
+        }
+
+        // Bisect, so only the rows the database rejects are left out; single rows get the full retries again
+        int middle = batch.size() / 2;
+        List<TransactionRecord> first = batch.subList(0, middle);
+        List<TransactionRecord> second = batch.subList(middle, batch.size());
+        boolean firstWritten = write(first, first.size() == 1 ? MAX_ATTEMPTS : 1);
+        boolean secondWritten = write(second, second.size() == 1 ? MAX_ATTEMPTS : 1);
+        return firstWritten && secondWritten;
+    }
+
+    /**
+     * @return the last error, or null once the batch is written
+     */
+    @Nullable
+    private SQLException tryWrite(@NotNull List<TransactionRecord> batch, int attempts) {
+        long delay = RETRY_DELAY_MS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                writer.write(batch);
+                written.addAndGet(batch.size());
+                return null;
+            } catch (SQLException e) {
+                if (attempt >= attempts || !sleep(delay)) {
+                    return e;
+                }
+                delay *= 2;
+            }
+        }
+    }
+
+    private static boolean isConnectionError(@NotNull SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLTransientConnectionException
+                || e instanceof SQLRecoverableException
+                || (state != null && state.startsWith("08"));
+    }
+
+    private void hold(@NotNull List<TransactionRecord> records) {
+        synchronized (held) {
+            held.addAll(records);
+        }
+    }
+
+    /**
+     * Retries the held records once their backoff has passed; stops at the first chunk that is held again
+     */
+    private void retryHeld() {
+        if (System.nanoTime() - nextHeldRetry < 0) {
+            return;
+        }
+
+        List<TransactionRecord> records;
+        synchronized (held) {
+            if (held.isEmpty()) {
+                heldRetryDelayMs = 0;
+                return;
+            }
+            records = new ArrayList<>(held);
+            held.clear();
+        }
+
+        for (int from = 0; from < records.size(); from += batchSize) {
+            int to = Math.min(records.size(), from + batchSize);
+            if (!write(records.subList(from, to))) {
+                hold(records.subList(to, records.size()));
+                heldRetryDelayMs = Math.min(MAX_HELD_RETRY_DELAY_MS, Math.max(RETRY_DELAY_MS, heldRetryDelayMs * 2));
+                nextHeldRetry = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(heldRetryDelayMs);
+                return;
+            }
+        }
+        heldRetryDelayMs = 0;
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void logBackpressure() {
+        long now = System.currentTimeMillis();
+        long last = lastBackpressureLog.get();
+        if (now - last >= BACKPRESSURE_LOG_INTERVAL_MS && lastBackpressureLog.compareAndSet(last, now)) {
+            logger.warning("Transaction log buffer is full, writing synchronously (queue depth: " + queue.size() + ")");
+        }
+    }
+
+    /**
+     * Stops the writer thread and writes every queued record
+     */
+    public void close() {
+        // No interrupt: the writer notices within one flush interval and must not be cut off mid-batch
+        running = false;
+
+        try {
+            thread.join(10000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Whatever is left (writer thread timed out, or held while the database was unreachable) is written here
+        List<TransactionRecord> remaining = new ArrayList<>();
+        synchronized (held) {
+            remaining.addAll(held);
+            held.clear();
+        }
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+
+        synchronized (held) {
+            if (!held.isEmpty()) {
+                failed.addAndGet(held.size());
+                logger.severe("Could not write " + held.size() + " transaction records before shutdown: " + held);
+                held.clear();
+            }
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    public long getAppendedCount() {
+        return appended.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Records waiting for the writer thread to retry them
+     */
+    public int getHeldCount() {
+        synchronized (held) {
+            return held.size();
+        }
+    }
+
+    public long getBackpressureCount() {
+        return backpressureEvents.get();
+    }
+
+    @FunctionalInterface
+    public interface BatchWriter {
+        void write(@NotNull List<TransactionRecord> batch) throws SQLException;
+    }
+
+    public record TransactionRecord(@Nullable UUID fromUuid, @NotNull UUID toUuid, @NotNull String currencyId,
+                                    double amount, @NotNull String type, long timestamp) {}
+}
@@ -0,0 +1,176 @@
+package tr.balzach.coderaEconomy.database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory index of the usernames in the players table.
+ *
+ * Names are kept in a case-insensitive prefix trie, so resolving a name and
+ * listing the names starting with a prefix take O(prefix length) instead of
+ * a lookup through the server or the database. Completions come out in
+ * alphabetical order. The index is loaded once from the database and then
+ * updated when players are created or join under a new name.
+ */
+public class UsernameIndex {
+
+    private final Node root = new Node();
+    private final Map<UUID, String> names = new HashMap<>();
+    private boolean loaded;
+
+    /**
+     * Adds the stored usernames. Players added while the names were being
+     * loaded are newer and are kept.
+     */
+    public synchronized void load(@NotNull Map<UUID, String> usernames) {
+        for (Map.Entry<UUID, String> entry : usernames.entrySet()) {
+            if (!names.containsKey(entry.getKey())) {
+                put(entry.getKey(), entry.getValue());
+            }
+        }
+        loaded = true;
+    }
+
+    /**
+     * Whether the stored usernames have been loaded, so a name missing from the index has no account
+     */
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Adds a player or renames it; a name taken over from another player now resolves to this one
+     */
+    public synchronized void put(@NotNull UUID uuid, @NotNull String username) {
+        String old = names.put(uuid, username);
+        if (old != null && !old.equalsIgnoreCase(username)) {
+            Node node = find(old);
+            if (node != null && uuid.equals(node.uuid)) {
+                node.uuid = null;
+                node.name = null;
+            }
+        }
+
+        Node node = root;
+        for (int i = 0; i < username.length(); i++) {
+            node = node.child(Character.toLowerCase(username.charAt(i)), true);
+        }
+        node.uuid = uuid;
+        node.name = username;
+    }
+
+    /**
+     * Gets the player of a name, ignoring case
+     */
+    @Nullable
+    public synchronized UUID get(@NotNull String username) {
+        Node node = find(username);
+        return node != null ? node.uuid : null;
+    }
+
+    public synchronized boolean contains(@NotNull UUID uuid) {
+        return names.containsKey(uuid);
+    }
+
+    /**
+     * Gets the last known name of a player
+     */
+    @Nullable
+    public synchronized String getName(@NotNull UUID uuid) {
+        return names.get(uuid);
+    }
+
+    /**
+     * Gets up to limit names starting with a prefix, ignoring case, in alphabetical order
+     */
+    @NotNull
+    public synchronized List<String> complete(@NotNull String prefix, int limit) {
+        List<String> out = new ArrayList<>(Math.min(limit, 16));
+        Node node = find(prefix);
+        if (node != null && limit > 0) {
+            collect(node, out, limit);
+        }
+        return out;
+    }
+
+    public synchronized int size() {
+        return names.size();
+    }
+
+    @Nullable
+    private Node find(@NotNull String key) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(Character.toLowerCase(key.charAt(i)), false);
+        }
+        return node;
+    }
+
+    /**
+     * Depth-first over children sorted by character; names of renamed players leave empty nodes behind
+     */
+    private static boolean collect(@NotNull Node node, @NotNull List<String> out, int limit) {
+        if (node.name != null) {
+            out.add(node.name);
+            if (out.size() >= limit) {
+                return true;
+            }
+        }
+
+        for (int i = 0; i < node.size; i++) {
+            if (collect(node.children[i], out, limit)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ═══════════════════ TRIE ═══════════════════
+
+    private static final class Node {
+
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        // Sorted by key; usernames use few distinct characters, so the arrays stay small
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int size;
+
+        private UUID uuid;
+        private String name;
+
+        @Nullable
+        Node child(char key, boolean create) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            if (!create) {
+                return null;
+            }
+
+            int insert = -index - 1;
+            if (size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, insert, keys, insert + 1, size - insert);
+            System.arraycopy(children, insert, children, insert + 1, size - insert);
+
+            Node node = new Node();
+            keys[insert] = key;
+            children[insert] = node;
+            size++;
+            return node;
+        }
+    }
+}
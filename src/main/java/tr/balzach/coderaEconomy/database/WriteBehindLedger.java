@@ -0,0 +1,87 @@
+package tr.balzach.coderaEconomy.database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * In-memory ledger of balances that have not been written to the database yet.
+ * Used by write-behind mode: every pending entry is the authoritative balance
+ * until it has been flushed to the balances table.
+ */
+public class WriteBehindLedger {
+
+    private final ConcurrentHashMap<BalanceKey, PendingWrite> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the pending balance, or null if nothing is waiting to be flushed
+     */
+    @Nullable
+    public Double getBalance(@NotNull UUID uuid, @NotNull String currencyId) {
+        PendingWrite write = pending.get(new BalanceKey(uuid, currencyId));
+        return write != null ? write.balance() : null;
+    }
+
+    /**
+     * Atomically updates a pending entry. The remapping function receives the
+     * current pending write (or null) and returns the new one; returning the
+     * same instance leaves the entry untouched.
+     */
+    public void compute(@NotNull UUID uuid, @NotNull String currencyId,
+                        @NotNull BiFunction<BalanceKey, PendingWrite, PendingWrite> remapping) {
+        pending.compute(new BalanceKey(uuid, currencyId), remapping);
+    }
+
+    /**
+     * Copies all pending writes
+     */
+    @NotNull
+    public Map<BalanceKey, PendingWrite> snapshot() {
+        return new HashMap<>(pending);
+    }
+
+    /**
+     * Copies pending writes of a single player
+     */
+    @NotNull
+    public Map<BalanceKey, PendingWrite> snapshot(@NotNull UUID uuid) {
+        Map<BalanceKey, PendingWrite> result = new HashMap<>();
+        for (Map.Entry<BalanceKey, PendingWrite> entry : pending.entrySet()) {
+            if (entry.getKey().uuid().equals(uuid)) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes flushed entries. Entries changed after the snapshot was taken stay dirty.
+     */
+    public void markFlushed(@NotNull Map<BalanceKey, PendingWrite> flushed) {
+        for (Map.Entry<BalanceKey, PendingWrite> entry : flushed.entrySet()) {
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    public record BalanceKey(@NotNull UUID uuid, @NotNull String currencyId) {}
+
+    /**
+     * @param base stored balance the unflushed changes were applied to, so a bulk
+     *             operation can tell whether it still has to be replayed on top;
+     *             NaN if the player had no stored balance
+     */
+    public record PendingWrite(@NotNull String username, double balance, double base) {}
+}
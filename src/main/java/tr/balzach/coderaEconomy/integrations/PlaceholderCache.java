@@ -0,0 +1,141 @@
+package tr.balzach.coderaEconomy.integrations;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import tr.balzach.coderaEconomy.CoderaEconomy;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Non-blocking cache of rendered placeholder values.
+ *
+ * Requests on the main thread always get the last known value right away;
+ * missing and stale values are rendered on the storage executor, so scoreboards
+ * never wait for the database. Player values are marked stale as soon as
+ * one of the player's balances changes.
+ */
+public class PlaceholderCache {
+
+    // Values nobody asked for in this long are dropped
+    private static final long IDLE_MILLIS = 5 * 60 * 1000;
+
+    private final CoderaEconomy plugin;
+    private final Map<UUID, Map<String, Entry>> playerEntries = new ConcurrentHashMap<>();
+    private final Map<String, Entry> globalEntries = new ConcurrentHashMap<>();
+    private final BukkitTask pruneTask;
+
+    public PlaceholderCache(@NotNull CoderaEconomy plugin) {
+        this.plugin = plugin;
+
+        this.pruneTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::pruneIdle, 1200L, 1200L);
+    }
+
+    /**
+     * Gets the value of a placeholder
+     *
+     * @param uuid     owner of the value, or null for values shared by all players
+     * @param ttl      how long a rendered value is reused, in milliseconds
+     * @param renderer renders the value, may block on the database
+     * @return the last known value, or an empty string while the first value is rendered
+     */
+    @Nullable
+    public String get(@Nullable UUID uuid, @NotNull String params, long ttl, @NotNull Supplier<String> renderer) {
+        Map<String, Entry> entries = uuid != null
+                ? playerEntries.computeIfAbsent(uuid, key -> new ConcurrentHashMap<>())
+                : globalEntries;
+        Entry entry = entries.computeIfAbsent(params, key -> new Entry());
+
+        long now = System.currentTimeMillis();
+        entry.lastAccess = now;
+
+        if (entry.expiresAt > now) {
+            return entry.value;
+        }
+
+        // Off the main thread there is no tick to protect, so the first value is rendered in place
+        if (entry.rendered || Bukkit.isPrimaryThread()) {
+            if (entry.refreshing.compareAndSet(false, true)) {
+                plugin.getDatabaseManager().runAsync(() -> render(entry, ttl, renderer)).exceptionally(e -> {
+                    // Storage executor full, the next request retries
+                    entry.refreshing.set(false);
+                    return null;
+                });
+            }
+            return entry.value;
+        }
+
+        render(entry, ttl, renderer);
+        return entry.value;
+    }
+
+    /**
+     * Marks all values of a player as stale; they are refreshed on the next request
+     */
+    public void invalidate(@NotNull UUID uuid) {
+        Map<String, Entry> entries = playerEntries.get(uuid);
+        if (entries != null) {
+            for (Entry entry : entries.values()) {
+                entry.generation++;
+                entry.expiresAt = 0;
+            }
+        }
+    }
+
+    /**
+     * Drops every value, so values rendered with old settings are not served after /eco reload
+     */
+    public void clear() {
+        playerEntries.clear();
+        globalEntries.clear();
+    }
+
+    /**
+     * Stops the prune timer and drops every value
+     */
+    public void close() {
+        pruneTask.cancel();
+        clear();
+    }
+
+    private void render(@NotNull Entry entry, long ttl, @NotNull Supplier<String> renderer) {
+        int generation = entry.generation;
+
+        try {
+            entry.value = renderer.get();
+            entry.rendered = true;
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to render placeholder", e);
+        } finally {
+            // Failed renders keep the old value until the next refresh;
+            // a value invalidated while it was rendered stays stale
+            entry.expiresAt = entry.generation == generation ? System.currentTimeMillis() + ttl : 0;
+            entry.refreshing.set(false);
+        }
+    }
+
+    private void pruneIdle() {
+        long cutoff = System.currentTimeMillis() - IDLE_MILLIS;
+
+        globalEntries.values().removeIf(entry -> entry.lastAccess < cutoff);
+        playerEntries.values().removeIf(entries -> {
+            entries.values().removeIf(entry -> entry.lastAccess < cutoff);
+            return entries.isEmpty();
+        });
+    }
+
+    private static final class Entry {
+        private volatile String value = "";
+        private volatile boolean rendered;
+        private volatile long expiresAt;
+        private volatile long lastAccess;
+        private volatile int generation;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+    }
+}
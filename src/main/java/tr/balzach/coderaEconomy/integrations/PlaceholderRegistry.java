@@ -0,0 +1,288 @@
+package tr.balzach.coderaEconomy.integrations;
+
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import tr.balzach.coderaEconomy.CoderaEconomy;
+import tr.balzach.coderaEconomy.currency.Currency;
+import tr.balzach.coderaEconomy.database.DatabaseManager.BalanceEntry;
+import tr.balzach.coderaEconomy.util.AmountFormatter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled placeholders of the expansion.
+ *
+ * Every distinct params string is parsed once into a handler that already
+ * knows its currency, variant and position; repeat requests are a single
+ * map lookup. Currencies are kept by id and looked up when rendering, so
+ * handlers survive /eco reload.
+ */
+public class PlaceholderRegistry {
+
+    // Unknown params are still parsed, just not remembered past this many entries
+    private static final int MAX_COMPILED = 4096;
+
+    private static final CompiledPlaceholder UNKNOWN = new CompiledPlaceholder(Kind.BALANCE, player -> null);
+
+    private final CoderaEconomy plugin;
+    private final Map<String, CompiledPlaceholder> compiled = new ConcurrentHashMap<>();
+
+    public PlaceholderRegistry(@NotNull CoderaEconomy plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Gets the compiled form of a placeholder
+     *
+     * @return the placeholder, or null if the params are not one of ours
+     */
+    @Nullable
+    public CompiledPlaceholder get(@NotNull String params) {
+        CompiledPlaceholder placeholder = compiled.get(params);
+        if (placeholder == null) {
+            placeholder = compile(params);
+            if (compiled.size() < MAX_COMPILED) {
+                compiled.putIfAbsent(params, placeholder);
+            }
+        }
+        return placeholder != UNKNOWN ? placeholder : null;
+    }
+
+    /**
+     * Forgets compiled placeholders, so params of currencies added by /eco reload are no longer unknown
+     */
+    public void clear() {
+        compiled.clear();
+    }
+
+    // ═══════════════════ COMPILER ═══════════════════
+
+    @NotNull
+    private CompiledPlaceholder compile(@NotNull String params) {
+        // Basic balance placeholders (default currency)
+        if (params.equalsIgnoreCase("balance")) {
+            return balance(null, BalanceVariant.RAW);
+        }
+        if (params.equalsIgnoreCase("balance_formatted")) {
+            return balance(null, BalanceVariant.FORMATTED);
+        }
+        if (params.equalsIgnoreCase("balance_rounded")) {
+            return balance(null, BalanceVariant.ROUNDED);
+        }
+        if (params.equalsIgnoreCase("balance_short")) {
+            return balance(null, BalanceVariant.SHORT);
+        }
+
+        // Rank position (default currency)
+        if (params.equalsIgnoreCase("rank")) {
+            return rank(null);
+        }
+
+        List<String> parts = split(params);
+
+        // Currency-specific balance: balance_<currency>[_formatted/rounded/short]
+        if (params.startsWith("balance_") && !params.contains("baltop")) {
+            if (parts.size() == 2) {
+                return balance(parts.get(1), BalanceVariant.RAW);
+            }
+            if (parts.size() == 3) {
+                BalanceVariant variant = switch (parts.get(2)) {
+                    case "formatted" -> BalanceVariant.FORMATTED;
+                    case "rounded" -> BalanceVariant.ROUNDED;
+                    case "short" -> BalanceVariant.SHORT;
+                    default -> null;
+                };
+                return variant != null ? balance(parts.get(1), variant) : constant(Kind.BALANCE, "Unknown Type");
+            }
+        }
+
+        // Rank for specific currency: rank_<currency>
+        if (params.startsWith("rank_")) {
+            return rank(params.substring(5));
+        }
+
+        // Baltop: baltop_<currency>_<position>_player/balance/balance_raw, baltop_<currency>_age
+        if (params.startsWith("baltop_")) {
+            if (parts.size() == 3 && parts.get(2).equals("age")) {
+                return baltopAge(parts.get(1));
+            }
+            if (parts.size() < 4) {
+                return constant(Kind.BALTOP, "Invalid Format");
+            }
+
+            int position;
+            try {
+                position = Integer.parseInt(parts.get(2));
+            } catch (NumberFormatException e) {
+                return constant(Kind.BALTOP, "N/A");
+            }
+
+            String type = parts.size() == 5 && parts.get(3).equals("balance") && parts.get(4).equals("raw")
+                    ? "raw"
+                    : parts.get(3);
+            BaltopVariant variant = switch (type) {
+                case "player" -> BaltopVariant.PLAYER;
+                case "balance" -> BaltopVariant.BALANCE;
+                case "raw" -> BaltopVariant.RAW;
+                default -> null;
+            };
+            return variant != null ? baltop(parts.get(1), position, variant) : constant(Kind.BALTOP, "Unknown Type");
+        }
+
+        return UNKNOWN;
+    }
+
+    /**
+     * Splits on '_' without the regex machinery of String.split
+     */
+    @NotNull
+    private static List<String> split(@NotNull String params) {
+        List<String> parts = new ArrayList<>(5);
+        int start = 0;
+        int end;
+        while ((end = params.indexOf('_', start)) != -1) {
+            parts.add(params.substring(start, end));
+            start = end + 1;
+        }
+        parts.add(params.substring(start));
+
+        // Trailing separators are dropped, like String.split
+        while (parts.size() > 1 && parts.get(parts.size() - 1).isEmpty()) {
+            parts.remove(parts.size() - 1);
+        }
+        return parts;
+    }
+
+    // ═══════════════════ HANDLERS ═══════════════════
+
+    @NotNull
+    private CompiledPlaceholder balance(@Nullable String currencyId, @NotNull BalanceVariant variant) {
+        return new CompiledPlaceholder(Kind.BALANCE, player -> {
+            Currency currency = resolve(currencyId);
+            if (currency == null) {
+                return "Invalid Currency";
+            }
+
+            double balance = getPlayerBalance(player, currency);
+            return switch (variant) {
+                case RAW -> AmountFormatter.of(2).format(balance);
+                case FORMATTED -> currency.format(balance);
+                case ROUNDED -> String.valueOf(Math.round(balance));
+                case SHORT -> Currency.formatCompact(balance);
+            };
+        });
+    }
+
+    @NotNull
+    private CompiledPlaceholder rank(@Nullable String currencyId) {
+        return new CompiledPlaceholder(Kind.RANK, player -> {
+            Currency currency = resolve(currencyId);
+            if (currency == null) {
+                return "Invalid Currency";
+            }
+
+            int position = plugin.getDatabaseManager().getRank(player.getUniqueId(), currency.getId());
+            return position == -1 ? "N/A" : "#" + position;
+        });
+    }
+
+    @NotNull
+    private CompiledPlaceholder baltop(@NotNull String currencyId, int position, @NotNull BaltopVariant variant) {
+        return new CompiledPlaceholder(Kind.BALTOP, player -> {
+            Currency currency = resolve(currencyId);
+            if (currency == null) {
+                return "Invalid Currency";
+            }
+
+            BalanceEntry entry = plugin.getDatabaseManager().getTopEntry(currency.getId(), position);
+            if (entry == null) {
+                return "N/A";
+            }
+
+            return switch (variant) {
+                case PLAYER -> entry.username();
+                case BALANCE -> currency.format(entry.balance());
+                case RAW -> AmountFormatter.of(2).format(entry.balance());
+            };
+        });
+    }
+
+    @NotNull
+    private CompiledPlaceholder baltopAge(@NotNull String currencyId) {
+        return new CompiledPlaceholder(Kind.BALTOP, player -> {
+            Currency currency = resolve(currencyId);
+            if (currency == null) {
+                return "Invalid Currency";
+            }
+
+            long age = plugin.getDatabaseManager().getBaltopSnapshotAge(currency.getId());
+            return age == -1 ? "N/A" : String.valueOf(age / 1000);
+        });
+    }
+
+    @NotNull
+    private static CompiledPlaceholder constant(@NotNull Kind kind, @NotNull String value) {
+        return new CompiledPlaceholder(kind, player -> value);
+    }
+
+    /**
+     * @param currencyId currency id, or null for the default currency
+     */
+    @Nullable
+    private Currency resolve(@Nullable String currencyId) {
+        return currencyId == null
+                ? plugin.getCurrencyManager().getDefaultCurrency()
+                : plugin.getCurrencyManager().getCurrency(currencyId);
+    }
+
+    private double getPlayerBalance(@NotNull OfflinePlayer player, @NotNull Currency currency) {
+        double balance = plugin.getDatabaseManager().getBalance(player.getUniqueId(), currency.getId());
+        return balance == -1 ? currency.getStarterBalance() : balance;
+    }
+
+    // ═══════════════════ TYPES ═══════════════════
+
+    /**
+     * What a placeholder shows, which decides how long its value is cached
+     */
+    public enum Kind {
+        /** A balance of the requesting player */
+        BALANCE,
+        /** A leaderboard position of the requesting player */
+        RANK,
+        /** A leaderboard value shared by all players */
+        BALTOP
+    }
+
+    private enum BalanceVariant { RAW, FORMATTED, ROUNDED, SHORT }
+
+    private enum BaltopVariant { PLAYER, BALANCE, RAW }
+
+    /**
+     * Renders a placeholder; the player is only null for {@link Kind#BALTOP} placeholders
+     */
+    @FunctionalInterface
+    public interface Handler {
+        @Nullable
+        String render(@Nullable OfflinePlayer player);
+    }
+
+    /**
+     * A parsed placeholder, ready to render
+     */
+    public record CompiledPlaceholder(@NotNull Kind kind, @NotNull Handler handler) {
+
+        public boolean isGlobal() {
+            return kind == Kind.BALTOP;
+        }
+
+        @Nullable
+        public String render(@Nullable OfflinePlayer player) {
+            return handler.render(player);
+        }
+    }
+}
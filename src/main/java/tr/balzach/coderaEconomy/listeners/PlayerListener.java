@@ -3,11 +3,15 @@ package tr.balzach.coderaEconomy.listeners;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.jetbrains.annotations.NotNull;
 import tr.balzach.coderaEconomy.CoderaEconomy;
-import tr.balzach.coderaEconomy.currency.Currency;
+import tr.balzach.coderaEconomy.database.DatabaseManager;
+
+import java.util.UUID;
 
 /**
  * Player event listener with multi-currency support
@@ -21,69 +25,53 @@ public class PlayerListener implements Listener {
     }
 
     /**
-     * Handles player join - creates account if new with all currencies
+     * Handles pre-login - creates the account if new, adds missing currencies and
+     * pins all balances in the cache before the player enters the world. The pin
+     * runs out if the player disconnects before joining.
+     * Runs on the login thread, so the database work never touches the main thread.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerPreLogin(@NotNull AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+
+        provision(event.getUniqueId(), event.getName());
+    }
+
+    /**
+     * Handles login - unpins the prefetched balances if the login was refused after pre-login
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLogin(@NotNull PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            plugin.getDatabaseManager().clearCache(event.getPlayer().getUniqueId());
+        }
+    }
+
+    /**
+     * Handles player join - provisions the account off the main thread if pre-login could not
      */
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerJoin(@NotNull PlayerJoinEvent event) {
-        // Check if player has account
-        if (!plugin.getDatabaseManager().hasAccount(event.getPlayer().getUniqueId())) {
-            // New player - create account
-            plugin.getDatabaseManager().createAccount(
-                    event.getPlayer().getUniqueId(),
-                    event.getPlayer().getName()
-            );
+        UUID uuid = event.getPlayer().getUniqueId();
+        if (plugin.getDatabaseManager().recordJoin(uuid)) {
+            return;
+        }
+
+        String name = event.getPlayer().getName();
+        plugin.getDatabaseManager().runAsync(() -> provision(uuid, name));
+    }
 
-            // Initialize all currencies with starter balance
-            for (Currency currency : plugin.getCurrencyManager().getCurrencies()) {
-                plugin.getDatabaseManager().setBalanceAsync(
-                        event.getPlayer().getUniqueId(),
-                        event.getPlayer().getName(),
-                        currency.getId(),
-                        currency.getStarterBalance()
-                ).thenAccept(success -> {
-                    if (success) {
-                        plugin.getDatabaseManager().recordTransaction(
-                                null,
-                                event.getPlayer().getUniqueId(),
-                                currency.getId(),
-                                currency.getStarterBalance(),
-                                "STARTER"
-                        );
-                    }
-                });
-            }
+    private void provision(@NotNull UUID uuid, @NotNull String name) {
+        DatabaseManager.AccountProvision provision = plugin.getDatabaseManager().provisionAccount(uuid, name);
 
+        if (provision != null && provision.created()) {
             plugin.getLogger().info(String.format(
                     "Created new account for %s with %d currencies",
-                    event.getPlayer().getName(),
-                    plugin.getCurrencyManager().getCurrencies().size()
+                    name,
+                    provision.seeded().size()
             ));
-        } else {
-            // Existing player - update username in case it changed
-            for (Currency currency : plugin.getCurrencyManager().getCurrencies()) {
-                double balance = plugin.getDatabaseManager().getBalance(
-                        event.getPlayer().getUniqueId(),
-                        currency.getId()
-                );
-
-                // If player doesn't have this currency yet (new currency added), initialize it
-                if (balance == -1) {
-                    plugin.getDatabaseManager().setBalance(
-                            event.getPlayer().getUniqueId(),
-                            event.getPlayer().getName(),
-                            currency.getId(),
-                            currency.getStarterBalance()
-                    );
-
-                    plugin.getDatabaseManager().recordTransaction(
-                            null,
-                            event.getPlayer().getUniqueId(),
-                            currency.getId(),
-                            currency.getStarterBalance(),
-                            "NEW_CURRENCY"
-                    );
-                }
-            }
         }
     }
 
@@ -92,6 +80,12 @@ public class PlayerListener implements Listener {
      */
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerQuit(@NotNull PlayerQuitEvent event) {
+        // Write-behind: persist the player's balances right away (if the executor is full, the next flush does)
+        if (plugin.getDatabaseManager().isWriteBehindEnabled()) {
+            UUID uuid = event.getPlayer().getUniqueId();
+            plugin.getDatabaseManager().runAsync(() -> plugin.getDatabaseManager().flushPendingWrites(uuid));
+        }
+
         // Clear player from cache to save memory
         plugin.getDatabaseManager().clearCache(event.getPlayer().getUniqueId());
 
@@ -0,0 +1,130 @@
+package tr.balzach.coderaEconomy.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Reusable decimal formatter producing the same text as String.format("%.Nf").
+ *
+ * Like Formatter, amounts are rounded half-up on their shortest decimal form
+ * (1.005 -> 1.01), but written straight into a StringBuilder without parsing
+ * a pattern or going through BigDecimal. Only values close to a rounding tie
+ * (or too large for long math) take the BigDecimal path.
+ */
+public class AmountFormatter {
+
+    // Decimal places served by the long fast path
+    private static final int MAX_FAST_SCALE = 15;
+    private static final double FAST_LIMIT = 0x1p53;
+
+    private static final AmountFormatter[] FIXED = new AmountFormatter[MAX_FAST_SCALE + 1];
+    private static final AmountFormatter COMPACT = new AmountFormatter(1, true);
+
+    static {
+        for (int i = 0; i < FIXED.length; i++) {
+            FIXED[i] = new AmountFormatter(i, false);
+        }
+    }
+
+    private final int decimals;
+    private final boolean compact;
+    private final char separator;
+
+    private AmountFormatter(int decimals, boolean compact) {
+        this.decimals = decimals;
+        this.compact = compact;
+        this.separator = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT)).getDecimalSeparator();
+    }
+
+    /**
+     * Gets the formatter for a number of decimal places (negative counts as 0)
+     */
+    @NotNull
+    public static AmountFormatter of(int decimals) {
+        int scale = Math.max(0, decimals);
+        return scale < FIXED.length ? FIXED[scale] : new AmountFormatter(scale, false);
+    }
+
+    /**
+     * Gets the compact formatter: 1.2K, 5.6M, 7.8B, whole numbers below a thousand
+     */
+    @NotNull
+    public static AmountFormatter compact() {
+        return COMPACT;
+    }
+
+    @NotNull
+    public String format(double amount) {
+        StringBuilder builder = new StringBuilder(24);
+        appendTo(builder, amount);
+        return builder.toString();
+    }
+
+    public void appendTo(@NotNull StringBuilder builder, double amount) {
+        if (!compact) {
+            appendFixed(builder, amount, decimals);
+        } else if (amount >= 1_000_000_000) {
+            appendFixed(builder, amount / 1_000_000_000, 1);
+            builder.append('B');
+        } else if (amount >= 1_000_000) {
+            appendFixed(builder, amount / 1_000_000, 1);
+            builder.append('M');
+        } else if (amount >= 1_000) {
+            appendFixed(builder, amount / 1_000, 1);
+            builder.append('K');
+        } else {
+            appendFixed(builder, amount, 0);
+        }
+    }
+
+    private void appendFixed(@NotNull StringBuilder builder, double amount, int scale) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+            builder.append(amount);
+            return;
+        }
+
+        // Formatter keeps the sign of values that round to zero, and of -0.0
+        if (Double.doubleToRawLongBits(amount) < 0) {
+            builder.append('-');
+        }
+        double abs = Math.abs(amount);
+
+        if (scale <= MAX_FAST_SCALE) {
+            long pow = Money.pow10(scale);
+            double scaled = abs * pow;
+            if (scaled < FAST_LIMIT) {
+                double floor = Math.floor(scaled);
+                double fraction = scaled - floor;
+
+                // The product and the shortest decimal form are both within an ulp or two
+                // of the exact value, so only near-ties can round differently
+                if (Math.abs(fraction - 0.5) > 4 * Math.ulp(scaled)) {
+                    long units = (long) floor + (fraction > 0.5 ? 1 : 0);
+                    appendUnits(builder, units, pow, scale);
+                    return;
+                }
+            }
+        }
+
+        String exact = BigDecimal.valueOf(abs).setScale(scale, RoundingMode.HALF_UP).toPlainString();
+        builder.append(separator == '.' ? exact : exact.replace('.', separator));
+    }
+
+    private void appendUnits(@NotNull StringBuilder builder, long units, long pow, int scale) {
+        builder.append(units / pow);
+        if (scale == 0) {
+            return;
+        }
+
+        builder.append(separator);
+        long fraction = units % pow;
+        for (long digit = pow / 10; digit > fraction && digit > 1; digit /= 10) {
+            builder.append('0');
+        }
+        builder.append(fraction);
+    }
+}
@@ -3,17 +3,36 @@ package tr.balzach.coderaEconomy.util;
 import net.md_5.bungee.api.ChatColor;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.regex.Matcher;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
  * Modern color utility supporting hex colors and gradients
+ *
+ * Colorizing is one hand-written pass over the text; results of short
+ * strings and gradient color stops are memoised.
  */
 public class ColorUtil {
 
     private static final Pattern HEX_PATTERN = Pattern.compile("<#([A-Fa-f0-9]{6})>");
     private static final Pattern GRADIENT_PATTERN = Pattern.compile("<gradient:(#[A-Fa-f0-9]{6}):(#[A-Fa-f0-9]{6})>(.*?)</gradient>");
 
+    private static final char COLOR_CHAR = ChatColor.COLOR_CHAR;
+    private static final String LEGACY_CODES = "0123456789AaBbCcDdEeFfKkLlMmNnOoRrXx";
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final String GRADIENT_OPEN = "<gradient:";
+    private static final String GRADIENT_CLOSE = "</gradient>";
+
+    // Longer strings are mostly one-off runtime text and are not memoised
+    private static final int MAX_CACHED_LENGTH = 256;
+    private static final int MAX_CACHED = 1024;
+    private static final int MAX_CACHED_GRADIENTS = 256;
+
+    private static final Map<String, String> colorized = new ConcurrentHashMap<>();
+    private static final Map<GradientKey, String[]> gradients = new ConcurrentHashMap<>();
+
     /**
      * Translates color codes including hex colors
      * Supports both legacy (&) and hex (<#RRGGBB>) formats
@@ -24,30 +43,19 @@ public class ColorUtil {
             return "";
         }
 
-        // Process gradients first
-        message = processGradients(message);
-
-        // Process hex colors
-        Matcher matcher = HEX_PATTERN.matcher(message);
-        StringBuffer buffer = new StringBuffer();
+        if (message.length() > MAX_CACHED_LENGTH) {
+            return translate(message);
+        }
 
-        while (matcher.find()) {
-            String hexCode = matcher.group(1);
-            try {
-                ChatColor color = ChatColor.of("#" + hexCode);
-                matcher.appendReplacement(buffer, Matcher.quoteReplacement(color.toString()));
-            } catch (IllegalArgumentException e) {
-                // Invalid hex code, keep original
-                matcher.appendReplacement(buffer, Matcher.quoteReplacement(matcher.group(0)));
+        String cached = colorized.get(message);
+        if (cached == null) {
+            cached = translate(message);
+            if (colorized.size() >= MAX_CACHED) {
+                colorized.clear();
             }
+            colorized.put(message, cached);
         }
-        matcher.appendTail(buffer);
-        message = buffer.toString();
-
-        // Process legacy color codes
-        message = ChatColor.translateAlternateColorCodes('&', message);
-
-        return message;
+        return cached;
     }
 
     /**
@@ -71,72 +79,185 @@ public class ColorUtil {
         return message;
     }
 
+    // ═══════════════════ TOKENIZER ═══════════════════
+
     /**
-     * Processes gradient text
+     * Gradients, hex tags and legacy codes in a single pass.
+     *
+     * Gradient text is emitted as is, like the old regex passes which colored it
+     * character by character before looking for other codes. Legacy codes are
+     * matched against the output, so "&" right before a code letter still
+     * translates when a tag ends in between.
      */
     @NotNull
-    private static String processGradients(@NotNull String message) {
-        Matcher matcher = GRADIENT_PATTERN.matcher(message);
-        StringBuffer buffer = new StringBuffer();
+    private static String translate(@NotNull String message) {
+        int length = message.length();
+        StringBuilder out = new StringBuilder(length + 16);
 
-        while (matcher.find()) {
-            String startHex = matcher.group(1);
-            String endHex = matcher.group(2);
-            String text = matcher.group(3);
+        int i = 0;
+        while (i < length) {
+            char c = message.charAt(i);
+
+            if (c == '<') {
+                int end = gradientEnd(message, i);
+                if (end != -1) {
+                    appendGradient(out, message, i);
+                    i = end;
+                    continue;
+                }
+
+                if (isHexTag(message, i)) {
+                    out.append(COLOR_CHAR).append('x');
+                    for (int j = i + 2; j < i + 8; j++) {
+                        out.append(COLOR_CHAR).append(message.charAt(j));
+                    }
+                    i += 9;
+                    continue;
+                }
+            }
 
-            String gradientText = applyGradient(text, startHex, endHex);
-            matcher.appendReplacement(buffer, Matcher.quoteReplacement(gradientText));
+            int last = out.length() - 1;
+            if (last >= 0 && out.charAt(last) == '&' && LEGACY_CODES.indexOf(c) != -1) {
+                out.setCharAt(last, COLOR_CHAR);
+                out.append(Character.toLowerCase(c));
+            } else {
+                out.append(c);
+            }
+            i++;
         }
-        matcher.appendTail(buffer);
 
-        return buffer.toString();
+        return out.toString();
     }
 
     /**
-     * Applies gradient effect to text
+     * Whether &lt;#RRGGBB&gt; starts at the index
      */
-    @NotNull
-    private static String applyGradient(@NotNull String text, @NotNull String startHex, @NotNull String endHex) {
-        if (text.isEmpty()) {
-            return "";
+    private static boolean isHexTag(@NotNull String message, int start) {
+        return start + 9 <= message.length()
+                && message.charAt(start + 1) == '#'
+                && isHex(message, start + 2)
+                && message.charAt(start + 8) == '>';
+    }
+
+    /**
+     * Finds the end of a &lt;gradient:#RRGGBB:#RRGGBB&gt;text&lt;/gradient&gt; tag starting at
+     * the index, or -1 if there is none. The text may not span lines.
+     */
+    private static int gradientEnd(@NotNull String message, int start) {
+        if (!message.startsWith(GRADIENT_OPEN, start)) {
+            return -1;
+        }
+
+        int colors = start + GRADIENT_OPEN.length();
+        if (colors + 16 > message.length()
+                || message.charAt(colors) != '#' || !isHex(message, colors + 1)
+                || message.charAt(colors + 7) != ':'
+                || message.charAt(colors + 8) != '#' || !isHex(message, colors + 9)
+                || message.charAt(colors + 15) != '>') {
+            return -1;
+        }
+
+        int textStart = colors + 16;
+        int close = message.indexOf(GRADIENT_CLOSE, textStart);
+        if (close == -1) {
+            return -1;
+        }
+        for (int j = textStart; j < close; j++) {
+            if (isLineTerminator(message.charAt(j))) {
+                return -1;
+            }
         }
+        return close + GRADIENT_CLOSE.length();
+    }
 
-        int[] startRGB = hexToRGB(startHex);
-        int[] endRGB = hexToRGB(endHex);
+    private static boolean isHex(@NotNull String message, int start) {
+        for (int j = start; j < start + 6; j++) {
+            char c = message.charAt(j);
+            if (!(c >= '0' && c <= '9') && !(c >= 'a' && c <= 'f') && !(c >= 'A' && c <= 'F')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    // ═══════════════════ GRADIENTS ═══════════════════
+
+    /**
+     * Appends the text of a gradient tag that starts at the index, one color per character
+     */
+    private static void appendGradient(@NotNull StringBuilder out, @NotNull String message, int start) {
+        int colors = start + GRADIENT_OPEN.length();
+        int textStart = colors + 16;
+        int close = message.indexOf(GRADIENT_CLOSE, textStart);
+
+        int length = close - textStart;
+        if (length == 0) {
+            return;
+        }
 
-        StringBuilder result = new StringBuilder();
-        int length = text.length();
+        int startRgb = Integer.parseInt(message.substring(colors + 1, colors + 7), 16);
+        int endRgb = Integer.parseInt(message.substring(colors + 9, colors + 15), 16);
+        String[] stops = gradientStops(startRgb, endRgb, length);
 
         for (int i = 0; i < length; i++) {
-            char c = text.charAt(i);
-            if (c == ' ') {
-                result.append(c);
-                continue;
+            char c = message.charAt(textStart + i);
+            if (c != ' ') {
+                out.append(stops[i]);
             }
+            out.append(c);
+        }
+    }
+
+    /**
+     * Color codes for every position of a gradient, computed once per (start, end, length)
+     */
+    @NotNull
+    private static String[] gradientStops(int startRgb, int endRgb, int length) {
+        GradientKey key = new GradientKey(startRgb, endRgb, length);
+        String[] stops = gradients.get(key);
+        if (stops != null) {
+            return stops;
+        }
+
+        int[] from = {(startRgb >> 16) & 0xFF, (startRgb >> 8) & 0xFF, startRgb & 0xFF};
+        int[] to = {(endRgb >> 16) & 0xFF, (endRgb >> 8) & 0xFF, endRgb & 0xFF};
 
+        stops = new String[length];
+        for (int i = 0; i < length; i++) {
             float ratio = length == 1 ? 0 : (float) i / (float) (length - 1);
 
-            int r = (int) (startRGB[0] + ratio * (endRGB[0] - startRGB[0]));
-            int g = (int) (startRGB[1] + ratio * (endRGB[1] - startRGB[1]));
-            int b = (int) (startRGB[2] + ratio * (endRGB[2] - startRGB[2]));
+            int r = (int) (from[0] + ratio * (to[0] - from[0]));
+            int g = (int) (from[1] + ratio * (to[1] - from[1]));
+            int b = (int) (from[2] + ratio * (to[2] - from[2]));
 
-            ChatColor color = ChatColor.of(String.format("#%02X%02X%02X", r, g, b));
-            result.append(color).append(c);
+            stops[i] = hexColor((r << 16) | (g << 8) | b);
         }
 
-        return result.toString();
+        if (gradients.size() >= MAX_CACHED_GRADIENTS) {
+            gradients.clear();
+        }
+        gradients.put(key, stops);
+        return stops;
     }
 
     /**
-     * Converts hex color to RGB array
+     * Same text as ChatColor.of("#RRGGBB").toString(), without the lookup
      */
     @NotNull
-    private static int[] hexToRGB(@NotNull String hex) {
-        hex = hex.replace("#", "");
-        return new int[]{
-                Integer.parseInt(hex.substring(0, 2), 16),
-                Integer.parseInt(hex.substring(2, 4), 16),
-                Integer.parseInt(hex.substring(4, 6), 16)
-        };
+    private static String hexColor(int rgb) {
+        char[] chars = new char[14];
+        chars[0] = COLOR_CHAR;
+        chars[1] = 'x';
+        for (int i = 0; i < 6; i++) {
+            chars[2 + i * 2] = COLOR_CHAR;
+            chars[3 + i * 2] = HEX_DIGITS[(rgb >> (20 - i * 4)) & 0xF];
+        }
+        return new String(chars);
     }
-}
\ No newline at end of file
+
+    private record GradientKey(int startRgb, int endRgb, int length) {}
+}
@@ -0,0 +1,255 @@
+package tr.balzach.coderaEconomy.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Map whose entries expire after a per-entry timeout, backed by a hashed timing wheel.
+ *
+ * Entries are linked into the wheel slot of their deadline, so adding, removing
+ * and expiring an entry is O(1) and every {@link #tick()} only visits one slot
+ * instead of scanning the whole map. Deadlines further away than one turn of
+ * the wheel wait for the extra turns in their slot, and entries that come due
+ * by tick count before their deadline has passed are moved on to a later slot.
+ */
+public class ExpiringMap<K, V> {
+
+    private final long tickMillis;
+    // Head node of every slot, null for an empty slot
+    private final List<Node<K, V>> wheel;
+    private final Map<K, Node<K, V>> entries = new HashMap<>();
+    private final BiConsumer<K, V> expiryListener;
+
+    private long currentTick;
+
+    /**
+     * @param tickMillis     resolution of the timeouts
+     * @param slots          number of wheel slots; one turn covers slots * tickMillis
+     * @param expiryListener called outside the lock for every entry that expires
+     */
+    public ExpiringMap(long tickMillis, int slots, @NotNull BiConsumer<K, V> expiryListener) {
+        if (tickMillis <= 0 || slots <= 0) {
+            throw new IllegalArgumentException("Tick and slot count must be positive");
+        }
+
+        this.tickMillis = tickMillis;
+        this.wheel = new ArrayList<>(Collections.nCopies(slots, null));
+        this.expiryListener = expiryListener;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Adds or replaces an entry, restarting its timeout
+     */
+    public void put(@NotNull K key, @NotNull V value, long timeoutMillis) {
+        synchronized (this) {
+            Node<K, V> old = entries.remove(key);
+            if (old != null) {
+                unlink(old);
+            }
+
+            // Rounded up; part of the current tick may have passed already, tick() checks the deadline too
+            Node<K, V> node = new Node<>(key, value, System.currentTimeMillis() + Math.max(0, timeoutMillis),
+                    currentTick + ticksFor(timeoutMillis));
+            link(node);
+            entries.put(key, node);
+        }
+    }
+
+    /**
+     * Gets an entry that has not expired yet
+     */
+    @Nullable
+    public V get(@NotNull K key) {
+        Node<K, V> expired;
+        synchronized (this) {
+            Node<K, V> node = entries.get(key);
+            if (node == null) {
+                return null;
+            }
+            if (node.deadline > System.currentTimeMillis()) {
+                return node.value;
+            }
+
+            // Timed out between two ticks
+            entries.remove(key);
+            unlink(node);
+            expired = node;
+        }
+
+        notifyExpired(expired);
+        return null;
+    }
+
+    /**
+     * Removes and returns an entry that has not expired yet. An entry past its
+     * deadline is removed and passed to the expiry listener, like on a tick.
+     *
+     * @return the value, or null if there was none or it had expired
+     */
+    @Nullable
+    public V take(@NotNull K key) {
+        Node<K, V> expired;
+        synchronized (this) {
+            Node<K, V> node = entries.remove(key);
+            if (node == null) {
+                return null;
+            }
+            unlink(node);
+            if (node.deadline > System.currentTimeMillis()) {
+                return node.value;
+            }
+            expired = node;
+        }
+
+        notifyExpired(expired);
+        return null;
+    }
+
+    /**
+     * Whether there is an entry for the key, including one past its deadline that has not been expired yet
+     */
+    public synchronized boolean containsKey(@NotNull K key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Removes an entry without calling the expiry listener
+     *
+     * @return the removed value, or null if there was none
+     */
+    @Nullable
+    public V remove(@NotNull K key) {
+        synchronized (this) {
+            Node<K, V> node = entries.remove(key);
+            if (node == null) {
+                return null;
+            }
+            unlink(node);
+            return node.value;
+        }
+    }
+
+    /**
+     * Removes an entry only if it still holds the given value
+     */
+    public boolean remove(@NotNull K key, @NotNull V value) {
+        synchronized (this) {
+            Node<K, V> node = entries.get(key);
+            if (node == null || node.value != value) {
+                return false;
+            }
+            entries.remove(key);
+            unlink(node);
+            return true;
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drops every entry without calling the expiry listener
+     */
+    public synchronized void clear() {
+        entries.clear();
+        Collections.fill(wheel, null);
+    }
+
+    /**
+     * Advances the wheel by one slot and expires what is due; call every tickMillis
+     */
+    public void tick() {
+        Node<K, V> expired = null;
+
+        synchronized (this) {
+            currentTick++;
+            int slot = (int) (currentTick % wheel.size());
+            long now = System.currentTimeMillis();
+
+            Node<K, V> node = wheel.get(slot);
+            while (node != null) {
+                Node<K, V> next = node.next;
+                if (node.expiryTick <= currentTick) {
+                    unlink(node);
+                    if (node.deadline > now) {
+                        // Added part-way through a tick or the ticks ran early: not due yet
+                        node.expiryTick = currentTick + ticksFor(node.deadline - now);
+                        link(node);
+                    } else {
+                        entries.remove(node.key);
+                        node.next = expired;
+                        expired = node;
+                    }
+                }
+                node = next;
+            }
+        }
+
+        while (expired != null) {
+            Node<K, V> next = expired.next;
+            notifyExpired(expired);
+            expired = next;
+        }
+    }
+
+    private long ticksFor(long millis) {
+        return Math.max(1, (Math.max(0, millis) + tickMillis - 1) / tickMillis);
+    }
+
+    private void notifyExpired(@NotNull Node<K, V> node) {
+        expiryListener.accept(node.key, node.value);
+    }
+
+    private void link(@NotNull Node<K, V> node) {
+        int slot = (int) (node.expiryTick % wheel.size());
+        node.slot = slot;
+        node.next = wheel.get(slot);
+        if (node.next != null) {
+            node.next.prev = node;
+        }
+        wheel.set(slot, node);
+    }
+
+    private void unlink(@NotNull Node<K, V> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else if (wheel.get(node.slot) == node) {
+            wheel.set(node.slot, node.next);
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private final V value;
+        private final long deadline;
+        private long expiryTick;
+
+        private int slot;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        private Node(K key, V value, long deadline, long expiryTick) {
+            this.key = key;
+            this.value = value;
+            this.deadline = deadline;
+            this.expiryTick = expiryTick;
+        }
+    }
+}
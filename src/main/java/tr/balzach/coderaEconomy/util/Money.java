@@ -0,0 +1,93 @@
+package tr.balzach.coderaEconomy.util;
+
+/**
+ * Fixed-point money arithmetic on long minor units.
+ *
+ * An amount with scale 2 is stored as hundredths (12.34 -> 1234). All math is
+ * overflow-checked and throws {@link ArithmeticException} instead of wrapping.
+ * Doubles are only used when converting at the API boundary.
+ */
+public class Money {
+
+    /** Largest supported scale; 10^18 is the last power of ten that fits in a long */
+    public static final int MAX_SCALE = 18;
+
+    private static final long[] POW10 = new long[MAX_SCALE + 1];
+
+    // 2^63 as a double, the first value that no longer fits in a long
+    private static final double LONG_LIMIT = 0x1p63;
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i <= MAX_SCALE; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    /**
+     * Gets 10^scale
+     */
+    public static long pow10(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Scale out of range: " + scale);
+        }
+        return POW10[scale];
+    }
+
+    /**
+     * Converts a major amount (12.34) to minor units (1234), rounding half away from zero
+     */
+    public static long toMinor(double amount, int scale) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+            throw new ArithmeticException("Not a finite amount: " + amount);
+        }
+
+        double scaled = Math.rint(amount * pow10(scale) * 1e6) / 1e6; // strip binary noise like 1.005 * 100 = 100.4999...
+        scaled = scaled < 0 ? -Math.floor(-scaled + 0.5) : Math.floor(scaled + 0.5);
+
+        if (scaled >= LONG_LIMIT || scaled < -LONG_LIMIT) {
+            throw new ArithmeticException("Amount too large: " + amount);
+        }
+        return (long) scaled;
+    }
+
+    /**
+     * Converts minor units back to a major amount
+     */
+    public static double toMajor(long minor, int scale) {
+        return (double) minor / pow10(scale);
+    }
+
+    /**
+     * Rounds a major amount to the given number of decimal places
+     */
+    public static double round(double amount, int scale) {
+        return toMajor(toMinor(amount, scale), scale);
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * Gets a fraction (0.05 = 5%) of a minor amount, rounded to whole minor units
+     */
+    public static long percentOf(long minor, double fraction) {
+        double result = Math.rint(minor * fraction);
+        if (result >= LONG_LIMIT || result < -LONG_LIMIT) {
+            throw new ArithmeticException("Amount too large: " + minor + " * " + fraction);
+        }
+        return (long) result;
+    }
+
+    /**
+     * Adds two major amounts exactly in minor units
+     */
+    public static double addExact(double a, double b, int scale) {
+        return toMajor(add(toMinor(a, scale), toMinor(b, scale)), scale);
+    }
+}
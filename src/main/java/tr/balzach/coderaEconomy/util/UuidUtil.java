@@ -0,0 +1,36 @@
+package tr.balzach.coderaEconomy.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Converts UUIDs to and from their 16-byte binary form (used as database keys)
+ */
+public class UuidUtil {
+
+    @NotNull
+    public static byte[] toBytes(@NotNull UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    @Nullable
+    public static byte[] toBytesOrNull(@Nullable UUID uuid) {
+        return uuid != null ? toBytes(uuid) : null;
+    }
+
+    @NotNull
+    public static UUID fromBytes(@NotNull byte[] bytes) {
+        if (bytes.length != 16) {
+            throw new IllegalArgumentException("UUID must be 16 bytes, got " + bytes.length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
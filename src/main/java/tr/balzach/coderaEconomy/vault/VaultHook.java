@@ -2,11 +2,11 @@ package tr.balzach.coderaEconomy.vault;
 
 import net.milkbowl.vault.economy.AbstractEconomy;
 import net.milkbowl.vault.economy.EconomyResponse;
-import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 import tr.balzach.coderaEconomy.CoderaEconomy;
 import tr.balzach.coderaEconomy.currency.Currency;
+import tr.balzach.coderaEconomy.database.DatabaseManager;
 
 import java.util.Collections;
 import java.util.List;
@@ -165,37 +165,29 @@ public class VaultHook extends AbstractEconomy {
             return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "Amount cannot be negative");
         }
 
-        double current = getBalance(player);
-        if (current < amount) {
-            return new EconomyResponse(0, current, EconomyResponse.ResponseType.FAILURE, "Insufficient funds");
-        }
-
-        double newBalance = current - amount;
-
-        if (!getDefaultCurrency().isValidBalance(newBalance)) {
-            return new EconomyResponse(0, current, EconomyResponse.ResponseType.FAILURE, "Balance would be below minimum");
-        }
-
+        // Single atomic UPDATE - insufficient funds are rejected by the limit check in the database
         String name = player.getName() != null ? player.getName() : "Unknown";
-        boolean success = plugin.getDatabaseManager().setBalance(
+        DatabaseManager.BalanceChange change = plugin.getDatabaseManager().changeBalance(
                 player.getUniqueId(),
                 name,
                 getDefaultCurrencyId(),
-                newBalance
+                -amount
         );
 
-        if (success) {
-            plugin.getDatabaseManager().recordTransaction(
-                    null,
-                    player.getUniqueId(),
-                    getDefaultCurrencyId(),
-                    -amount,
-                    "WITHDRAW"
-            );
-            return new EconomyResponse(amount, newBalance, EconomyResponse.ResponseType.SUCCESS, null);
-        }
-
-        return new EconomyResponse(0, current, EconomyResponse.ResponseType.FAILURE, "Database error");
+        return switch (change.status()) {
+            case SUCCESS -> {
+                plugin.getDatabaseManager().recordTransaction(
+                        null,
+                        player.getUniqueId(),
+                        getDefaultCurrencyId(),
+                        -amount,
+                        "WITHDRAW"
+                );
+                yield new EconomyResponse(amount, change.balance(), EconomyResponse.ResponseType.SUCCESS, null);
+            }
+            case REJECTED -> failure(change, "Insufficient funds");
+            case ERROR -> failure(change, "Database error");
+        };
     }
 
     @Override
@@ -211,33 +203,38 @@ public class VaultHook extends AbstractEconomy {
             return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "Amount cannot be negative");
         }
 
-        double current = getBalance(player);
-        double newBalance = current + amount;
-
-        if (!getDefaultCurrency().isValidBalance(newBalance)) {
-            return new EconomyResponse(0, current, EconomyResponse.ResponseType.FAILURE, "Balance would exceed maximum");
-        }
-
+        // Single atomic UPDATE - limits are enforced by the database
         String name = player.getName() != null ? player.getName() : "Unknown";
-        boolean success = plugin.getDatabaseManager().setBalance(
+        DatabaseManager.BalanceChange change = plugin.getDatabaseManager().changeBalance(
                 player.getUniqueId(),
                 name,
                 getDefaultCurrencyId(),
-                newBalance
+                amount
         );
 
-        if (success) {
-            plugin.getDatabaseManager().recordTransaction(
-                    null,
-                    player.getUniqueId(),
-                    getDefaultCurrencyId(),
-                    amount,
-                    "DEPOSIT"
-            );
-            return new EconomyResponse(amount, newBalance, EconomyResponse.ResponseType.SUCCESS, null);
-        }
+        return switch (change.status()) {
+            case SUCCESS -> {
+                plugin.getDatabaseManager().recordTransaction(
+                        null,
+                        player.getUniqueId(),
+                        getDefaultCurrencyId(),
+                        amount,
+                        "DEPOSIT"
+                );
+                yield new EconomyResponse(amount, change.balance(), EconomyResponse.ResponseType.SUCCESS, null);
+            }
+            case REJECTED -> failure(change, "Balance would exceed maximum");
+            case ERROR -> failure(change, "Database error");
+        };
+    }
 
-        return new EconomyResponse(0, current, EconomyResponse.ResponseType.FAILURE, "Database error");
+    /**
+     * Failure response carrying the balance when it is known without another query
+     */
+    @NotNull
+    private static EconomyResponse failure(@NotNull DatabaseManager.BalanceChange change, @NotNull String message) {
+        double balance = Double.isNaN(change.balance()) ? 0 : change.balance();
+        return new EconomyResponse(0, balance, EconomyResponse.ResponseType.FAILURE, message);
     }
 
     @Override
@@ -249,7 +246,7 @@ public class VaultHook extends AbstractEconomy {
     // Legacy String-based Methods
     @Override
     public boolean hasAccount(@NotNull String playerName) {
-        return hasAccount(Bukkit.getOfflinePlayer(playerName));
+        return hasAccount(plugin.getDatabaseManager().getOfflinePlayer(playerName));
     }
 
     @Override
@@ -259,7 +256,7 @@ public class VaultHook extends AbstractEconomy {
 
     @Override
     public double getBalance(@NotNull String playerName) {
-        return getBalance(Bukkit.getOfflinePlayer(playerName));
+        return getBalance(plugin.getDatabaseManager().getOfflinePlayer(playerName));
     }
 
     @Override
@@ -269,7 +266,7 @@ public class VaultHook extends AbstractEconomy {
 
     @Override
     public boolean has(@NotNull String playerName, double amount) {
-        return has(Bukkit.getOfflinePlayer(playerName), amount);
+        return has(plugin.getDatabaseManager().getOfflinePlayer(playerName), amount);
     }
 
     @Override
@@ -280,7 +277,7 @@ public class VaultHook extends AbstractEconomy {
     @Override
     @NotNull
     public EconomyResponse withdrawPlayer(@NotNull String playerName, double amount) {
-        return withdrawPlayer(Bukkit.getOfflinePlayer(playerName), amount);
+        return withdrawPlayer(plugin.getDatabaseManager().getOfflinePlayer(playerName), amount);
     }
 
     @Override
@@ -292,7 +289,7 @@ public class VaultHook extends AbstractEconomy {
     @Override
     @NotNull
     public EconomyResponse depositPlayer(@NotNull String playerName, double amount) {
-        return depositPlayer(Bukkit.getOfflinePlayer(playerName), amount);
+        return depositPlayer(plugin.getDatabaseManager().getOfflinePlayer(playerName), amount);
     }
 
     @Override
@@ -303,7 +300,7 @@ public class VaultHook extends AbstractEconomy {
 
     @Override
     public boolean createPlayerAccount(@NotNull String playerName) {
-        return createPlayerAccount(Bukkit.getOfflinePlayer(playerName));
+        return createPlayerAccount(plugin.getDatabaseManager().getOfflinePlayer(playerName));
     }
 
     @Override